@@ -14,6 +14,17 @@
  */
 
 import java.util.*;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
 
 public class BST{
 
@@ -397,6 +408,1148 @@ public class BST{
         return result;
     }
 
+    // ------------------------------------------------------------
+    // Q13. Self-Balancing BST (AVL Tree, iterative)
+    //
+    // About:
+    // Same insert / search / delete / printInRange as above, but
+    // the tree stays balanced whatever the insertion order, so
+    // sorted input (e.g. timestamps) no longer degrades into a
+    // linked list.
+    //
+    // - every node stores its height
+    // - after insert / delete, nodes on the path back to the root
+    //   are checked; if left and right heights differ by more
+    //   than 1, one or two rotations fix it
+    // - no recursion: the root-to-node path is kept in an array
+    //   (AVL height is at most ~1.44 log n, so 64 slots is plenty)
+    //
+    // Time Complexity:
+    // insert / search / delete: O(log n)
+    // printInRange: O(log n + k)
+    // ------------------------------------------------------------
+    static class AVLTree{
+        static final int MAX_HEIGHT=64;
+
+        static class AVLNode{
+            int key;
+            int height=1;
+            int count=1;   // nodes in this subtree
+            long sum;      // sum of keys in this subtree
+            AVLNode left;
+            AVLNode right;
+
+            AVLNode(int key){
+                this.key=key;
+                this.sum=key;
+            }
+        }
+
+        AVLNode root;
+        int size;
+
+        public int size(){
+            return size;
+        }
+
+        public int height(){
+            return height(root);
+        }
+
+        public boolean search(int key){
+            AVLNode curr=root;
+            while(curr != null){
+                if(key < curr.key){
+                    curr=curr.left;
+                }else if(key > curr.key){
+                    curr=curr.right;
+                }else{
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // returns false if key was already present
+        public boolean insert(int key){
+            AVLNode[] path=new AVLNode[MAX_HEIGHT];
+            int depth=0;
+            AVLNode curr=root;
+
+            while(curr != null){
+                path[depth++]=curr;
+                if(key < curr.key){
+                    curr=curr.left;
+                }else if(key > curr.key){
+                    curr=curr.right;
+                }else{
+                    return false;
+                }
+            }
+
+            AVLNode newNode=new AVLNode(key);
+            if(depth == 0){
+                root=newNode;
+            }else if(key < path[depth-1].key){
+                path[depth-1].left=newNode;
+            }else{
+                path[depth-1].right=newNode;
+            }
+            size++;
+            rebalancePath(path,depth);
+            return true;
+        }
+
+        // returns false if key was not present
+        public boolean delete(int key){
+            AVLNode[] path=new AVLNode[MAX_HEIGHT];
+            int depth=0;
+            AVLNode curr=root;
+
+            while(curr != null && curr.key != key){
+                path[depth++]=curr;
+                curr= key < curr.key ? curr.left : curr.right;
+            }
+            if(curr == null){
+                return false;
+            }
+
+            // two children: copy inorder successor, delete it instead
+            if(curr.left != null && curr.right != null){
+                path[depth++]=curr;
+                AVLNode successor=curr.right;
+                while(successor.left != null){
+                    path[depth++]=successor;
+                    successor=successor.left;
+                }
+                curr.key=successor.key;
+                curr=successor;
+            }
+
+            // curr has at most one child now
+            AVLNode child= curr.left != null ? curr.left : curr.right;
+            if(depth == 0){
+                root=child;
+            }else if(path[depth-1].left == curr){
+                path[depth-1].left=child;
+            }else{
+                path[depth-1].right=child;
+            }
+            size--;
+            rebalancePath(path,depth);
+            return true;
+        }
+
+        // prints keys in [k1, k2] in sorted order
+        public void printInRange(int k1,int k2){
+            AVLNode[] stack=new AVLNode[MAX_HEIGHT];
+            int top=0;
+            AVLNode curr=root;
+
+            while(curr != null || top > 0){
+                // go left only while keys can still be >= k1
+                while(curr != null){
+                    if(curr.key < k1){
+                        curr=curr.right;
+                    }else{
+                        stack[top++]=curr;
+                        curr=curr.left;
+                    }
+                }
+                if(top == 0){
+                    break;
+                }
+                curr=stack[--top];
+                if(curr.key > k2){
+                    break;
+                }
+                System.out.print(curr.key+" ");
+                curr=curr.right;
+            }
+            System.out.println();
+        }
+
+        // --------------------------------------------------------
+        // Q14. Order Statistics (augmented AVL tree)
+        //
+        // About:
+        // Every node also stores the size and the key sum of its
+        // subtree (kept up to date by update(), which runs for
+        // every node on the insert / delete path and in every
+        // rotation). One root-to-leaf walk then answers:
+        // - rank(key): how many keys are < key
+        // - select(k): the k-th smallest key (0-based)
+        // - countInRange / sumInRange over [k1, k2]
+        //
+        // Time Complexity: O(log n) each
+        // --------------------------------------------------------
+        public int rank(int key){
+            int rank=0;
+            AVLNode curr=root;
+            while(curr != null){
+                if(key <= curr.key){
+                    curr=curr.left;
+                }else{
+                    rank+=count(curr.left)+1;
+                    curr=curr.right;
+                }
+            }
+            return rank;
+        }
+
+        public int select(int k){
+            if(k < 0 || k >= size){
+                throw new IndexOutOfBoundsException("k: "+k+", size: "+size);
+            }
+            AVLNode curr=root;
+            while(true){
+                int leftCount=count(curr.left);
+                if(k < leftCount){
+                    curr=curr.left;
+                }else if(k > leftCount){
+                    k-=leftCount+1;
+                    curr=curr.right;
+                }else{
+                    return curr.key;
+                }
+            }
+        }
+
+        public int countInRange(int k1,int k2){
+            if(k1 > k2){
+                return 0;
+            }
+            return countAtMost(k2)-rank(k1);
+        }
+
+        public long sumInRange(int k1,int k2){
+            if(k1 > k2){
+                return 0;
+            }
+            return sumAtMost(k2)-sumLess(k1);
+        }
+
+        // number of keys <= key
+        int countAtMost(int key){
+            int result=0;
+            AVLNode curr=root;
+            while(curr != null){
+                if(key < curr.key){
+                    curr=curr.left;
+                }else{
+                    result+=count(curr.left)+1;
+                    curr=curr.right;
+                }
+            }
+            return result;
+        }
+
+        // sum of keys <= key
+        long sumAtMost(int key){
+            long result=0;
+            AVLNode curr=root;
+            while(curr != null){
+                if(key < curr.key){
+                    curr=curr.left;
+                }else{
+                    result+=sum(curr.left)+curr.key;
+                    curr=curr.right;
+                }
+            }
+            return result;
+        }
+
+        // sum of keys < key
+        long sumLess(int key){
+            long result=0;
+            AVLNode curr=root;
+            while(curr != null){
+                if(key <= curr.key){
+                    curr=curr.left;
+                }else{
+                    result+=sum(curr.left)+curr.key;
+                    curr=curr.right;
+                }
+            }
+            return result;
+        }
+
+        // fixes heights and balance from path[depth-1] up to the root
+        void rebalancePath(AVLNode[] path,int depth){
+            for(int i=depth-1;i>=0;i--){
+                AVLNode node=path[i];
+                AVLNode balanced=balance(node);
+                if(balanced == node){
+                    continue;
+                }
+                if(i == 0){
+                    root=balanced;
+                }else if(path[i-1].left == node){
+                    path[i-1].left=balanced;
+                }else{
+                    path[i-1].right=balanced;
+                }
+            }
+        }
+
+        AVLNode balance(AVLNode node){
+            update(node);
+            int bf=balanceFactor(node);
+
+            if(bf > 1){
+                // Left-Right case
+                if(balanceFactor(node.left) < 0){
+                    node.left=rotateLeft(node.left);
+                }
+                return rotateRight(node); // Left-Left case
+            }
+            if(bf < -1){
+                // Right-Left case
+                if(balanceFactor(node.right) > 0){
+                    node.right=rotateRight(node.right);
+                }
+                return rotateLeft(node); // Right-Right case
+            }
+            return node;
+        }
+
+        AVLNode rotateRight(AVLNode y){
+            AVLNode x=y.left;
+            y.left=x.right;
+            x.right=y;
+            update(y);
+            update(x);
+            return x;
+        }
+
+        AVLNode rotateLeft(AVLNode x){
+            AVLNode y=x.right;
+            x.right=y.left;
+            y.left=x;
+            update(x);
+            update(y);
+            return y;
+        }
+
+        void update(AVLNode node){
+            node.height=1+Math.max(height(node.left),height(node.right));
+            node.count=1+count(node.left)+count(node.right);
+            node.sum=node.key+sum(node.left)+sum(node.right);
+        }
+
+        static int height(AVLNode node){
+            return node == null ? 0 : node.height;
+        }
+
+        static int count(AVLNode node){
+            return node == null ? 0 : node.count;
+        }
+
+        static long sum(AVLNode node){
+            return node == null ? 0 : node.sum;
+        }
+
+        static int balanceFactor(AVLNode node){
+            return height(node.left)-height(node.right);
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Q15. B+ Tree (cache-conscious in-memory index)
+    //
+    // About:
+    // A BST node holds one key, so every step of a lookup is a
+    // pointer chase (usually a cache miss). A B+ tree node holds
+    // up to nodeSize sorted keys in one int[] (64 ints = 4 cache
+    // lines by default), so the tree is only log_64(n) levels
+    // deep and each level is a binary search inside one array.
+    //
+    // - inner nodes: keys[i] is the smallest key of children[i+1]
+    // - leaves hold all the keys and are linked left to right,
+    //   so a range scan finds the first leaf once and then just
+    //   walks the leaf chain
+    // - insert splits a full node in half and pushes the middle
+    //   key into the parent (the root splits -> tree grows)
+    // - bulkLoad builds the tree from a sorted array in O(n),
+    //   packing leaves full (like sortedArrayToBST in Q9)
+    //
+    // Time Complexity:
+    // contains / insert: O(log n)
+    // range scan: O(log n + k)
+    // bulkLoad: O(n)
+    // ------------------------------------------------------------
+    static class BPlusTree{
+        static class BNode{
+            final boolean leaf;
+            int[] keys;
+            int count;
+            BNode[] children; // inner nodes only
+            BNode next;       // leaves only: right neighbour
+
+            BNode(boolean leaf,int nodeSize){
+                this.leaf=leaf;
+                keys=new int[nodeSize+1]; // +1 for overflow before a split
+                if(!leaf){
+                    children=new BNode[nodeSize+2];
+                }
+            }
+        }
+
+        final int nodeSize;
+        BNode root;
+        int size;
+        int height=1;
+
+        public BPlusTree(){
+            this(64);
+        }
+
+        public BPlusTree(int nodeSize){
+            if(nodeSize < 3){
+                throw new IllegalArgumentException("nodeSize must be >= 3");
+            }
+            this.nodeSize=nodeSize;
+            root=new BNode(true,nodeSize);
+        }
+
+        public int size(){
+            return size;
+        }
+
+        // index of first key > key in keys[0..count)
+        static int upperBound(int[] keys,int count,int key){
+            int lo=0;
+            int hi=count;
+            while(lo < hi){
+                int mid=(lo+hi)>>>1;
+                if(keys[mid] <= key){
+                    lo=mid+1;
+                }else{
+                    hi=mid;
+                }
+            }
+            return lo;
+        }
+
+        // index of first key >= key in keys[0..count)
+        static int lowerBound(int[] keys,int count,int key){
+            int lo=0;
+            int hi=count;
+            while(lo < hi){
+                int mid=(lo+hi)>>>1;
+                if(keys[mid] < key){
+                    lo=mid+1;
+                }else{
+                    hi=mid;
+                }
+            }
+            return lo;
+        }
+
+        BNode findLeaf(int key){
+            BNode node=root;
+            while(!node.leaf){
+                node=node.children[upperBound(node.keys,node.count,key)];
+            }
+            return node;
+        }
+
+        public boolean contains(int key){
+            BNode leaf=findLeaf(key);
+            int i=lowerBound(leaf.keys,leaf.count,key);
+            return i < leaf.count && leaf.keys[i] == key;
+        }
+
+        // returns false if key was already present
+        public boolean insert(int key){
+            BNode[] path=new BNode[height];
+            int depth=0;
+            BNode node=root;
+            while(!node.leaf){
+                path[depth++]=node;
+                node=node.children[upperBound(node.keys,node.count,key)];
+            }
+
+            int pos=lowerBound(node.keys,node.count,key);
+            if(pos < node.count && node.keys[pos] == key){
+                return false;
+            }
+            System.arraycopy(node.keys,pos,node.keys,pos+1,node.count-pos);
+            node.keys[pos]=key;
+            node.count++;
+            size++;
+
+            // split upwards while nodes overflow
+            BNode child=node;
+            while(child.count > nodeSize){
+                BNode right=new BNode(child.leaf,nodeSize);
+                int separator=split(child,right);
+
+                if(depth == 0){
+                    BNode newRoot=new BNode(false,nodeSize);
+                    newRoot.keys[0]=separator;
+                    newRoot.children[0]=child;
+                    newRoot.children[1]=right;
+                    newRoot.count=1;
+                    root=newRoot;
+                    height++;
+                    break;
+                }
+
+                BNode parent=path[--depth];
+                int i=upperBound(parent.keys,parent.count,separator);
+                System.arraycopy(parent.keys,i,parent.keys,i+1,parent.count-i);
+                System.arraycopy(parent.children,i+1,parent.children,i+2,parent.count-i);
+                parent.keys[i]=separator;
+                parent.children[i+1]=right;
+                parent.count++;
+                child=parent;
+            }
+            return true;
+        }
+
+        // moves the upper half of node into right, returns separator
+        int split(BNode node,BNode right){
+            int half=node.count/2;
+            if(node.leaf){
+                right.count=node.count-half;
+                System.arraycopy(node.keys,half,right.keys,0,right.count);
+                node.count=half;
+                right.next=node.next;
+                node.next=right;
+                return right.keys[0];
+            }
+            // inner: keys[half] moves up, it is not kept in either half
+            int separator=node.keys[half];
+            right.count=node.count-half-1;
+            System.arraycopy(node.keys,half+1,right.keys,0,right.count);
+            System.arraycopy(node.children,half+1,right.children,0,right.count+1);
+            for(int i=half+1;i<=node.count;i++){
+                node.children[i]=null;
+            }
+            node.count=half;
+            return separator;
+        }
+
+        // number of keys in [k1, k2]
+        public int countInRange(int k1,int k2){
+            int count=0;
+            BNode leaf=findLeaf(k1);
+            int i=lowerBound(leaf.keys,leaf.count,k1);
+            while(leaf != null){
+                for(;i < leaf.count;i++){
+                    if(leaf.keys[i] > k2){
+                        return count;
+                    }
+                    count++;
+                }
+                leaf=leaf.next;
+                i=0;
+            }
+            return count;
+        }
+
+        // copies keys in [k1, k2] into out, returns how many were copied
+        public int rangeScan(int k1,int k2,int[] out){
+            int n=0;
+            BNode leaf=findLeaf(k1);
+            int i=lowerBound(leaf.keys,leaf.count,k1);
+            while(leaf != null && n < out.length){
+                int end=upperBound(leaf.keys,leaf.count,k2);
+                int take=Math.min(end-i,out.length-n);
+                if(take > 0){
+                    System.arraycopy(leaf.keys,i,out,n,take);
+                    n+=take;
+                }
+                if(end < leaf.count){
+                    break; // passed k2
+                }
+                leaf=leaf.next;
+                i=0;
+            }
+            return n;
+        }
+
+        public void printInRange(int k1,int k2){
+            BNode leaf=findLeaf(k1);
+            int i=lowerBound(leaf.keys,leaf.count,k1);
+            while(leaf != null){
+                for(;i < leaf.count;i++){
+                    if(leaf.keys[i] > k2){
+                        System.out.println();
+                        return;
+                    }
+                    System.out.print(leaf.keys[i]+" ");
+                }
+                leaf=leaf.next;
+                i=0;
+            }
+            System.out.println();
+        }
+
+        // builds a tree from strictly increasing keys in O(n)
+        public static BPlusTree bulkLoad(int[] sorted,int nodeSize){
+            BPlusTree tree=new BPlusTree(nodeSize);
+            int n=sorted.length;
+            if(n == 0){
+                return tree;
+            }
+            for(int i=1;i<n;i++){
+                if(sorted[i-1] >= sorted[i]){
+                    throw new IllegalArgumentException("keys must be strictly increasing at index "+i);
+                }
+            }
+
+            // leaf level
+            int leafCount=(n+nodeSize-1)/nodeSize;
+            BNode[] level=new BNode[leafCount];
+            int[] mins=new int[leafCount]; // smallest key under each node
+            BNode prev=null;
+            for(int j=0;j<leafCount;j++){
+                BNode leaf=new BNode(true,nodeSize);
+                int from=j*nodeSize;
+                leaf.count=Math.min(nodeSize,n-from);
+                System.arraycopy(sorted,from,leaf.keys,0,leaf.count);
+                if(prev != null){
+                    prev.next=leaf;
+                }
+                prev=leaf;
+                level[j]=leaf;
+                mins[j]=sorted[from];
+            }
+
+            // inner levels: group up to nodeSize + 1 children per node
+            int fanout=nodeSize+1;
+            while(level.length > 1){
+                int parentCount=(level.length+fanout-1)/fanout;
+                BNode[] parents=new BNode[parentCount];
+                int[] parentMins=new int[parentCount];
+                for(int j=0;j<parentCount;j++){
+                    BNode parent=new BNode(false,nodeSize);
+                    int from=j*fanout;
+                    int children=Math.min(fanout,level.length-from);
+                    for(int c=0;c<children;c++){
+                        parent.children[c]=level[from+c];
+                        if(c > 0){
+                            parent.keys[c-1]=mins[from+c];
+                        }
+                    }
+                    parent.count=children-1;
+                    parents[j]=parent;
+                    parentMins[j]=mins[from];
+                }
+                level=parents;
+                mins=parentMins;
+                tree.height++;
+            }
+
+            tree.root=level[0];
+            tree.size=n;
+            return tree;
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Q16. Merge Two BSTs (streaming, no lists)
+    //
+    // About:
+    // Q12 copies both trees into boxed ArrayLists and merges them
+    // into a third one before rebuilding. Here both trees are
+    // walked with explicit-stack inorder iterators and the merged
+    // stream is consumed straight into a balanced tree:
+    //
+    // - build(n) builds the left n/2 nodes first, then takes the
+    //   next value from the stream for the root, then builds the
+    //   right part. Values come out of the stream in sorted order,
+    //   so the result is a balanced BST.
+    // - only the iterator stacks (O(h1 + h2)) and the build
+    //   recursion (O(log(n + m))) are used besides the output.
+    //
+    // Time Complexity: O(n + m)
+    // Space Complexity: O(h1 + h2) extra
+    // ------------------------------------------------------------
+    static class InorderIterator{
+        Node[] stack=new Node[16];
+        int top=0;
+
+        InorderIterator(Node root){
+            pushLeft(root);
+        }
+
+        void pushLeft(Node node){
+            while(node != null){
+                if(top == stack.length){
+                    stack=Arrays.copyOf(stack,top*2);
+                }
+                stack[top++]=node;
+                node=node.left;
+            }
+        }
+
+        boolean hasNext(){
+            return top > 0;
+        }
+
+        int peek(){
+            return stack[top-1].data;
+        }
+
+        int next(){
+            Node node=stack[--top];
+            stack[top]=null;
+            pushLeft(node.right);
+            return node.data;
+        }
+    }
+
+    // merges two inorder streams, same tie rule as helper(list1,list2)
+    static class MergedStream{
+        final InorderIterator it1;
+        final InorderIterator it2;
+
+        MergedStream(Node root1,Node root2){
+            it1=new InorderIterator(root1);
+            it2=new InorderIterator(root2);
+        }
+
+        int next(){
+            if(!it2.hasNext() || (it1.hasNext() && it1.peek() < it2.peek())){
+                return it1.next();
+            }
+            return it2.next();
+        }
+    }
+
+    public static Node mergeStreaming(Node root1,Node root2){
+        int n=countNodes(root1)+countNodes(root2);
+        return build(new MergedStream(root1,root2),n);
+    }
+
+    static Node build(MergedStream stream,int n){
+        if(n <= 0){
+            return null;
+        }
+        Node left=build(stream,n/2);
+        Node root=new Node(stream.next());
+        root.left=left;
+        root.right=build(stream,n-n/2-1);
+        return root;
+    }
+
+    // iterative size, safe for skewed trees
+    public static int countNodes(Node root){
+        int count=0;
+        InorderIterator it=new InorderIterator(root);
+        while(it.hasNext()){
+            it.next();
+            count++;
+        }
+        return count;
+    }
+
+    // ------------------------------------------------------------
+    // Q17. Persistent AVL Tree (copy-on-write, lock-free reads)
+    //
+    // About:
+    // insert/delete above change nodes in place, so a reader
+    // running at the same time can see a half-rotated tree.
+    // Here nodes are immutable: an update copies only the nodes
+    // on the root-to-key path (O(log n)) and shares every other
+    // subtree with the old version. The new root is published
+    // with a CAS on an AtomicReference.
+    //
+    // - snapshot() just reads the current root, so readers never
+    //   lock and keep seeing one consistent version while writers
+    //   move on
+    // - writers retry their update if another writer published
+    //   first (lock-free)
+    // - old versions are garbage collected once no snapshot
+    //   refers to them
+    //
+    // Time Complexity:
+    // insert / delete / contains: O(log n)
+    // range query: O(log n + k)
+    // snapshot: O(1)
+    // ------------------------------------------------------------
+    static class PersistentAVLTree{
+        static final class PNode{
+            final int key;
+            final int height;
+            final int size;
+            final PNode left;
+            final PNode right;
+
+            PNode(int key,PNode left,PNode right){
+                this.key=key;
+                this.left=left;
+                this.right=right;
+                this.height=1+Math.max(height(left),height(right));
+                this.size=1+size(left)+size(right);
+            }
+        }
+
+        // an immutable version of the tree
+        static final class Snapshot{
+            final PNode root;
+
+            Snapshot(PNode root){
+                this.root=root;
+            }
+
+            public int size(){
+                return PersistentAVLTree.size(root);
+            }
+
+            public boolean contains(int key){
+                PNode node=root;
+                while(node != null){
+                    if(key == node.key){
+                        return true;
+                    }
+                    node=key < node.key ? node.left : node.right;
+                }
+                return false;
+            }
+
+            // visits keys in [k1, k2] in sorted order
+            public void forEachInRange(int k1,int k2,IntConsumer action){
+                PNode[] stack=new PNode[64];
+                int top=0;
+                PNode node=root;
+                while(node != null || top > 0){
+                    while(node != null){
+                        if(node.key < k1){
+                            node=node.right; // whole left side is < k1
+                        }else{
+                            stack[top++]=node;
+                            node=node.left;
+                        }
+                    }
+                    if(top == 0){
+                        return; // everything left is < k1
+                    }
+                    node=stack[--top];
+                    if(node.key > k2){
+                        return;
+                    }
+                    action.accept(node.key);
+                    node=node.right;
+                }
+            }
+
+            // number of keys in [k1, k2]
+            public int countInRange(int k1,int k2){
+                if(k1 > k2){
+                    return 0;
+                }
+                return countLess(root,k2,true)-countLess(root,k1,false);
+            }
+
+            // number of keys < key (or <= key if inclusive)
+            static int countLess(PNode node,int key,boolean inclusive){
+                int count=0;
+                while(node != null){
+                    if(node.key < key || (inclusive && node.key == key)){
+                        count+=PersistentAVLTree.size(node.left)+1;
+                        node=node.right;
+                    }else{
+                        node=node.left;
+                    }
+                }
+                return count;
+            }
+        }
+
+        final AtomicReference<PNode> root=new AtomicReference<>();
+
+        public Snapshot snapshot(){
+            return new Snapshot(root.get());
+        }
+
+        public int size(){
+            return size(root.get());
+        }
+
+        public boolean contains(int key){
+            return snapshot().contains(key);
+        }
+
+        // returns false if key was already present
+        public boolean insert(int key){
+            while(true){
+                PNode current=root.get();
+                PNode updated=insert(current,key);
+                if(updated == current){
+                    return false;
+                }
+                if(root.compareAndSet(current,updated)){
+                    return true;
+                }
+            }
+        }
+
+        // returns false if key was not present
+        public boolean delete(int key){
+            while(true){
+                PNode current=root.get();
+                PNode updated=delete(current,key);
+                if(updated == current){
+                    return false;
+                }
+                if(root.compareAndSet(current,updated)){
+                    return true;
+                }
+            }
+        }
+
+        // returns node itself when nothing changed
+        static PNode insert(PNode node,int key){
+            if(node == null){
+                return new PNode(key,null,null);
+            }
+            if(key == node.key){
+                return node;
+            }
+            if(key < node.key){
+                PNode left=insert(node.left,key);
+                return left == node.left ? node : balance(node.key,left,node.right);
+            }
+            PNode right=insert(node.right,key);
+            return right == node.right ? node : balance(node.key,node.left,right);
+        }
+
+        // returns node itself when nothing changed
+        static PNode delete(PNode node,int key){
+            if(node == null){
+                return null;
+            }
+            if(key < node.key){
+                PNode left=delete(node.left,key);
+                return left == node.left ? node : balance(node.key,left,node.right);
+            }
+            if(key > node.key){
+                PNode right=delete(node.right,key);
+                return right == node.right ? node : balance(node.key,node.left,right);
+            }
+            if(node.left == null){
+                return node.right;
+            }
+            if(node.right == null){
+                return node.left;
+            }
+            PNode succ=node.right;
+            while(succ.left != null){
+                succ=succ.left;
+            }
+            return balance(succ.key,node.left,deleteMin(node.right));
+        }
+
+        static PNode deleteMin(PNode node){
+            if(node.left == null){
+                return node.right;
+            }
+            return balance(node.key,deleteMin(node.left),node.right);
+        }
+
+        // builds a node from key + children, rotating if needed
+        static PNode balance(int key,PNode left,PNode right){
+            int bf=height(left)-height(right);
+            if(bf > 1){
+                if(height(left.left) < height(left.right)){
+                    left=rotateLeft(left);
+                }
+                return rotateRight(new PNode(key,left,right));
+            }
+            if(bf < -1){
+                if(height(right.right) < height(right.left)){
+                    right=rotateRight(right);
+                }
+                return rotateLeft(new PNode(key,left,right));
+            }
+            return new PNode(key,left,right);
+        }
+
+        static PNode rotateRight(PNode y){
+            PNode x=y.left;
+            return new PNode(x.key,x.left,new PNode(y.key,x.right,y.right));
+        }
+
+        static PNode rotateLeft(PNode x){
+            PNode y=x.right;
+            return new PNode(y.key,new PNode(x.key,x.left,y.left),y.right);
+        }
+
+        static int height(PNode node){
+            return node == null ? 0 : node.height;
+        }
+
+        static int size(PNode node){
+            return node == null ? 0 : node.size;
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Q18. Save / Load a BST (NIO channels, memory-mapped queries)
+    //
+    // About:
+    // A BST is fully described by its sorted keys: a balanced BST
+    // over a sorted array is the array itself with binary search
+    // (the middle is the root, as in Q9). So the file just stores
+    // the keys in inorder:
+    //
+    // int magic, int count, count x int key (sorted)
+    //
+    // - writeBST streams keys out with the inorder iterator (Q16)
+    // - readBST streams them back into a balanced tree with build()
+    //   (no reinserting, no rebalancing)
+    // - MappedBST answers queries straight from a read-only
+    //   MappedByteBuffer, without building any nodes. The OS page
+    //   cache keeps the hot part of the file in memory.
+    //
+    // Time Complexity:
+    // write / read: O(n)
+    // MappedBST open: O(1), contains / range count: O(log n)
+    // ------------------------------------------------------------
+    static final int BST_MAGIC=0x42535431; // "BST1"
+
+    public static void writeBST(Node root,WritableByteChannel ch) throws IOException{
+        ByteBuffer buf=ByteBuffer.allocate(1<<16);
+        buf.putInt(BST_MAGIC);
+        buf.putInt(countNodes(root));
+        InorderIterator it=new InorderIterator(root);
+        while(it.hasNext()){
+            if(buf.remaining() < 4){
+                flush(ch,buf);
+            }
+            buf.putInt(it.next());
+        }
+        flush(ch,buf);
+    }
+
+    static void flush(WritableByteChannel ch,ByteBuffer buf) throws IOException{
+        buf.flip();
+        while(buf.hasRemaining()){
+            ch.write(buf);
+        }
+        buf.clear();
+    }
+
+    // sorted int stream read through a buffer
+    static class KeyReader{
+        final ReadableByteChannel ch;
+        final ByteBuffer buf=ByteBuffer.allocate(1<<16);
+
+        KeyReader(ReadableByteChannel ch){
+            this.ch=ch;
+            buf.flip(); // start empty
+        }
+
+        int next() throws IOException{
+            if(buf.remaining() < 4){
+                buf.compact();
+                while(buf.position() < 4){
+                    if(ch.read(buf) < 0){
+                        throw new EOFException("BST data ended early.");
+                    }
+                }
+                buf.flip();
+            }
+            return buf.getInt();
+        }
+    }
+
+    public static Node readBST(ReadableByteChannel ch) throws IOException{
+        KeyReader in=new KeyReader(ch);
+        if(in.next() != BST_MAGIC){
+            throw new IOException("Not a serialized BST.");
+        }
+        int n=in.next();
+        return build(in,n);
+    }
+
+    static Node build(KeyReader in,int n) throws IOException{
+        if(n <= 0){
+            return null;
+        }
+        Node left=build(in,n/2);
+        Node root=new Node(in.next());
+        root.left=left;
+        root.right=build(in,n-n/2-1);
+        return root;
+    }
+
+    // read-only BST backed by a file written with writeBST
+    static class MappedBST{
+        final MappedByteBuffer buf;
+        final int size;
+
+        MappedBST(MappedByteBuffer buf){
+            this.buf=buf;
+            if(buf.getInt(0) != BST_MAGIC){
+                throw new IllegalArgumentException("Not a serialized BST.");
+            }
+            this.size=buf.getInt(4);
+        }
+
+        public static MappedBST open(Path file) throws IOException{
+            try(FileChannel ch=FileChannel.open(file,StandardOpenOption.READ)){
+                // the mapping stays valid after the channel is closed
+                return new MappedBST(ch.map(FileChannel.MapMode.READ_ONLY,0,ch.size()));
+            }
+        }
+
+        public int size(){
+            return size;
+        }
+
+        // i-th smallest key (0 based)
+        public int get(int i){
+            if(i < 0 || i >= size){
+                throw new IndexOutOfBoundsException("Index "+i+" out of range for size "+size);
+            }
+            return buf.getInt(8+4*i);
+        }
+
+        // number of keys < key (or <= key if inclusive)
+        int rank(int key,boolean inclusive){
+            int lo=0;
+            int hi=size;
+            while(lo < hi){
+                int mid=(lo+hi)>>>1;
+                int k=buf.getInt(8+4*mid);
+                if(k < key || (inclusive && k == key)){
+                    lo=mid+1;
+                }else{
+                    hi=mid;
+                }
+            }
+            return lo;
+        }
+
+        public boolean contains(int key){
+            int i=rank(key,false);
+            return i < size && get(i) == key;
+        }
+
+        public int countInRange(int k1,int k2){
+            if(k1 > k2){
+                return 0;
+            }
+            return rank(k2,true)-rank(k1,false);
+        }
+
+        public void printInRange(int k1,int k2){
+            for(int i=rank(k1,false);i<size;i++){
+                int key=get(i);
+                if(key > k2){
+                    break;
+                }
+                System.out.print(key+" ");
+            }
+            System.out.println();
+        }
+    }
+
     // ------------------------------------------------------------
     // Main Method (Test Code)
     // ------------------------------------------------------------
@@ -427,6 +1580,14 @@ public class BST{
             root2 = insert(root2, v);
         }
         System.out.print(merge(root1,root2).data );
+        System.out.println();
+
+        // ===== Persistent AVL: range above every key =====
+        PersistentAVLTree ptree=new PersistentAVLTree();
+        ptree.insert(1);
+        PersistentAVLTree.Snapshot snap=ptree.snapshot();
+        snap.forEachInRange(5,10,k -> System.out.print(k+" "));
+        System.out.println("count in [5, 10]: "+snap.countInRange(5,10));
         
     }
 }
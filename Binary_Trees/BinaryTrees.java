@@ -17,6 +17,19 @@ import java.util.Queue;
 import java.util.LinkedList;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 
 public class BinaryTreesBasics{
 
@@ -152,18 +165,13 @@ public class BinaryTreesBasics{
         //
         // About:
         // Finds the maximum depth of the tree
+        // Q6 - Q8, Q10 and Q21 run as folds on TreeWalker (Q23), so
+        // a very deep (skewed) tree can't overflow the call stack.
         //
         // Time Complexity: O(n)
         // ------------------------------------------------------------
         public static int height(Node root){
-            if(root == null){
-                return 0;
-            }
-            int lh=height(root.left);
-            int rh=height(root.right);
-
-            int height=Math.max(lh,rh)+1;
-            return height;
+            return (int)new TreeWalker().fold(root,0,(node,lh,rh) -> Math.max(lh,rh)+1);
         }
 
         // ------------------------------------------------------------
@@ -172,13 +180,7 @@ public class BinaryTreesBasics{
         // Time Complexity: O(n)
         // ------------------------------------------------------------
         public static int count(Node root){
-            if(root == null){
-                return 0;
-            }
-            int leftCount=count(root.left);
-            int rightCount=count(root.right);
-
-            return leftCount+rightCount+1;
+            return (int)new TreeWalker().fold(root,0,(node,leftCount,rightCount) -> leftCount+rightCount+1);
         }
 
         // ------------------------------------------------------------
@@ -187,13 +189,7 @@ public class BinaryTreesBasics{
         // Time Complexity: O(n)
         // ------------------------------------------------------------
         public static int sum(Node root){
-            if(root == null){
-                return 0;
-            }
-            int leftSum=sum(root.left);
-            int rightSum=sum(root.right);
-
-            return leftSum+rightSum+root.data;
+            return (int)new TreeWalker().fold(root,0,(node,leftSum,rightSum) -> leftSum+rightSum+node.data);
         }
 
         // ------------------------------------------------------------
@@ -236,25 +232,20 @@ public class BinaryTreesBasics{
         //
         // About:
         // Computes diameter and height in a single traversal.
+        // Each subtree's Info (diam, h) is packed into one long for
+        // the fold: diam in the high half, h in the low half.
         //
         // Time Complexity: O(n)
         // ------------------------------------------------------------
         public static Info diameter(Node root){
-            if(root == null){
-                return new Info(0,0);
-            }
-
-            Info leftInfo=diameter(root.left);
-            Info rightInfo=diameter(root.right);
-
-            int finalDiameter=Math.max(
-                Math.max(leftInfo.diam,rightInfo.diam),
-                leftInfo.h + rightInfo.h + 1
-            );
-
-            int FinalHeight=Math.max(leftInfo.h,rightInfo.h)+1;
-
-            return new Info(finalDiameter,FinalHeight);
+            long packed=new TreeWalker().fold(root,0,(node,leftInfo,rightInfo) -> {
+                long lh=leftInfo & 0xffffffffL;
+                long rh=rightInfo & 0xffffffffL;
+                long finalDiameter=Math.max(Math.max(leftInfo>>>32,rightInfo>>>32),lh+rh+1);
+                long finalHeight=Math.max(lh,rh)+1;
+                return finalDiameter<<32 | finalHeight;
+            });
+            return new Info((int)(packed>>>32),(int)packed);
         }
 
         // ------------------------------------------------------------
@@ -549,19 +540,934 @@ public class BinaryTreesBasics{
         // Time Complexity: O(n)
         // ------------------------------------------------------------
         public static int sumtree(Node root){
+            return (int)new TreeWalker().fold(root,0,(node,leftChildSum,rightChildSum) -> {
+                int oldData=node.data;
+                node.data=(int)(leftChildSum+rightChildSum);
+                return oldData+node.data;
+            });
+        }
+
+        // ------------------------------------------------------------
+        // Q22. Binary Serialization over NIO Channels
+        //
+        // About:
+        // Q1 rebuilds a tree from an int[] where -1 marks null, so the
+        // whole array has to be in memory and -1 can't be a value.
+        // This format is preorder too, but the shape is kept in a
+        // separate bitmap: 2 bits per node (has left, has right).
+        //
+        // Layout:
+        // int magic, int hasRoot (0 / 1), then blocks of 32 nodes:
+        // long (32 x 2 shape bits) followed by up to 32 int values.
+        // About 4.25 bytes per node, any int value allowed.
+        //
+        // Writer and reader both stream through a 64 KB buffer and
+        // use explicit stacks, so huge or skewed trees are fine.
+        //
+        // Time Complexity: O(n)
+        // Space Complexity: O(h) + buffer
+        // ------------------------------------------------------------
+        static final int TREE_MAGIC=0x42545231; // "BTR1"
+        static final int BLOCK=32;
+
+        public static void writeTree(Node root,WritableByteChannel ch) throws IOException{
+            ByteBuffer buf=ByteBuffer.allocate(1<<16);
+            buf.putInt(TREE_MAGIC);
+            buf.putInt(root == null ? 0 : 1);
+
+            long shape=0;
+            int[] values=new int[BLOCK];
+            int inBlock=0;
+
+            Node[] stack=new Node[64];
+            int top=0;
+            if(root != null){
+                stack[top++]=root;
+            }
+            while(top > 0){
+                Node curr=stack[--top];
+                int bits=(curr.left != null ? 2 : 0) | (curr.right != null ? 1 : 0);
+                shape|=(long)bits<<(2*inBlock);
+                values[inBlock++]=curr.data;
+                if(inBlock == BLOCK){
+                    writeBlock(ch,buf,shape,values,inBlock);
+                    shape=0;
+                    inBlock=0;
+                }
+
+                if(top+2 > stack.length){
+                    stack=Arrays.copyOf(stack,stack.length*2);
+                }
+                if(curr.right != null){
+                    stack[top++]=curr.right;
+                }
+                if(curr.left != null){
+                    stack[top++]=curr.left;
+                }
+            }
+            if(inBlock > 0){
+                writeBlock(ch,buf,shape,values,inBlock);
+            }
+            flush(ch,buf);
+        }
+
+        static void writeBlock(WritableByteChannel ch,ByteBuffer buf,long shape,int[] values,int n) throws IOException{
+            if(buf.remaining() < 8+4*BLOCK){
+                flush(ch,buf);
+            }
+            buf.putLong(shape);
+            for(int i=0;i<n;i++){
+                buf.putInt(values[i]);
+            }
+        }
+
+        static void flush(WritableByteChannel ch,ByteBuffer buf) throws IOException{
+            buf.flip();
+            while(buf.hasRemaining()){
+                ch.write(buf);
+            }
+            buf.clear();
+        }
+
+        // reads nodes back in preorder, one block of shape bits at a time
+        static class TreeReader{
+            final ReadableByteChannel ch;
+            final ByteBuffer buf=ByteBuffer.allocate(1<<16);
+            long shape;
+            int inBlock=BLOCK;
+            int bits; // shape bits of the last node read
+
+            TreeReader(ReadableByteChannel ch){
+                this.ch=ch;
+                buf.flip(); // start empty
+            }
+
+            void ensure(int bytes) throws IOException{
+                if(buf.remaining() >= bytes){
+                    return;
+                }
+                buf.compact();
+                while(buf.position() < bytes){
+                    if(ch.read(buf) < 0){
+                        throw new EOFException("Tree data ended early.");
+                    }
+                }
+                buf.flip();
+            }
+
+            int readInt() throws IOException{
+                ensure(4);
+                return buf.getInt();
+            }
+
+            Node next() throws IOException{
+                if(inBlock == BLOCK){
+                    ensure(8);
+                    shape=buf.getLong();
+                    inBlock=0;
+                }
+                bits=(int)(shape>>>(2*inBlock))&3;
+                inBlock++;
+                return new Node(readInt());
+            }
+        }
+
+        public static Node readTree(ReadableByteChannel ch) throws IOException{
+            TreeReader in=new TreeReader(ch);
+            if(in.readInt() != TREE_MAGIC){
+                throw new IOException("Not a serialized binary tree.");
+            }
+            if(in.readInt() == 0){
+                return null;
+            }
+
+            Node root=in.next();
+            Node curr=root;
+            int bits=in.bits;
+            Node[] stack=new Node[64]; // nodes still waiting for a right child
+            int top=0;
+            while(true){
+                Node child;
+                if((bits & 2) != 0){
+                    child=in.next();
+                    curr.left=child;
+                    if((bits & 1) != 0){
+                        if(top == stack.length){
+                            stack=Arrays.copyOf(stack,top*2);
+                        }
+                        stack[top++]=curr;
+                    }
+                }else if((bits & 1) != 0){
+                    child=in.next();
+                    curr.right=child;
+                }else if(top > 0){
+                    Node parent=stack[--top];
+                    stack[top]=null;
+                    child=in.next();
+                    parent.right=child;
+                }else{
+                    break;
+                }
+                curr=child;
+                bits=in.bits;
+            }
+            return root;
+        }
+        // ------------------------------------------------------------
+        // Q23. Iterative Traversal Engine (no recursion)
+        //
+        // About:
+        // Q2 - Q10 and Q21 recurse once per level, so a skewed tree
+        // a million nodes deep throws StackOverflowError. TreeWalker
+        // keeps its own growable Node[] stack on the heap and can be
+        // reused for many walks (reset clears it, the array stays).
+        //
+        // - next() hands out nodes one at a time in PRE / IN / POST
+        //   order, so traversal is lazy (used by stream())
+        // - walk() calls a visitor for every node
+        // - fold() is a bottom-up evaluation: each node combines
+        //   the results of its left and right subtree, kept on a
+        //   parallel long[] stack. height / count / sum / diameter /
+        //   sumtree are all folds.
+        // - morrisInOrder() needs no stack at all: it threads each
+        //   node's inorder predecessor to it temporarily and undoes
+        //   the threads on the way back.
+        //
+        // Time Complexity: O(n)
+        // Space Complexity: O(h) heap (Morris: O(1))
+        // ------------------------------------------------------------
+        public enum Order{PRE,IN,POST}
+
+        public interface NodeFold{
+            long combine(Node node,long left,long right);
+        }
+
+        public static class TreeWalker{
+            Node[] stack=new Node[64];
+            int top;
+            long[] values=new long[64];
+            int valueTop;
+
+            Order order;
+            Node curr;
+            Node last;
+
+            public TreeWalker reset(Node root,Order order){
+                Arrays.fill(stack,0,top,null);
+                top=0;
+                valueTop=0;
+                this.order=order;
+                this.curr=null;
+                this.last=null;
+                if(order == Order.PRE){
+                    if(root != null){
+                        push(root);
+                    }
+                }else{
+                    curr=root;
+                }
+                return this;
+            }
+
+            void push(Node node){
+                if(top == stack.length){
+                    stack=Arrays.copyOf(stack,top*2);
+                }
+                stack[top++]=node;
+            }
+
+            Node pop(){
+                Node node=stack[--top];
+                stack[top]=null;
+                return node;
+            }
+
+            // next node in the chosen order, or null when done
+            public Node next(){
+                if(order == Order.PRE){
+                    if(top == 0){
+                        return null;
+                    }
+                    Node node=pop();
+                    if(node.right != null){
+                        push(node.right);
+                    }
+                    if(node.left != null){
+                        push(node.left);
+                    }
+                    return node;
+                }
+                if(order == Order.IN){
+                    while(curr != null){
+                        push(curr);
+                        curr=curr.left;
+                    }
+                    if(top == 0){
+                        return null;
+                    }
+                    Node node=pop();
+                    curr=node.right;
+                    return node;
+                }
+                // POST: a node is done once its right side is done
+                while(curr != null || top > 0){
+                    if(curr != null){
+                        push(curr);
+                        curr=curr.left;
+                    }else{
+                        Node peek=stack[top-1];
+                        if(peek.right != null && last != peek.right){
+                            curr=peek.right;
+                        }else{
+                            last=pop();
+                            return last;
+                        }
+                    }
+                }
+                return null;
+            }
+
+            public void walk(Node root,Order order,Consumer<Node> visitor){
+                reset(root,order);
+                Node node;
+                while((node=next()) != null){
+                    visitor.accept(node);
+                }
+            }
+
+            // empty is the result for a null subtree
+            public long fold(Node root,long empty,NodeFold f){
+                reset(root,Order.POST);
+                Node node;
+                while((node=next()) != null){
+                    long right=node.right == null ? empty : values[--valueTop];
+                    long left=node.left == null ? empty : values[--valueTop];
+                    if(valueTop == values.length){
+                        values=Arrays.copyOf(values,valueTop*2);
+                    }
+                    values[valueTop++]=f.combine(node,left,right);
+                }
+                return root == null ? empty : values[--valueTop];
+            }
+        }
+
+        public static void morrisInOrder(Node root,Consumer<Node> visitor){
+            Node curr=root;
+            while(curr != null){
+                if(curr.left == null){
+                    visitor.accept(curr);
+                    curr=curr.right;
+                    continue;
+                }
+                Node pred=curr.left;
+                while(pred.right != null && pred.right != curr){
+                    pred=pred.right;
+                }
+                if(pred.right == null){
+                    pred.right=curr; // thread back to curr
+                    curr=curr.left;
+                }else{
+                    pred.right=null; // left side done, remove thread
+                    visitor.accept(curr);
+                    curr=curr.right;
+                }
+            }
+        }
+
+        // lazy, sequential stream of nodes in the given order
+        public static Stream<Node> stream(Node root,Order order){
+            TreeWalker walker=new TreeWalker().reset(root,order);
+            Spliterator<Node> split=new Spliterators.AbstractSpliterator<Node>(
+                Long.MAX_VALUE,Spliterator.ORDERED | Spliterator.NONNULL){
+                @Override
+                public boolean tryAdvance(Consumer<? super Node> action){
+                    Node node=walker.next();
+                    if(node == null){
+                        return false;
+                    }
+                    action.accept(node);
+                    return true;
+                }
+            };
+            return StreamSupport.stream(split,false);
+        }
+
+        // ------------------------------------------------------------
+        // Q24. Parallel Aggregation (fork/join)
+        //
+        // About:
+        // count / sum / height / diameter are bottom-up folds (Q23),
+        // and the left and right subtree of a node can be folded
+        // independently. A task forks its left subtree and folds the
+        // right one itself, then combines the two with the node
+        // (like Info in Q10).
+        //
+        // - a child is only split off if it has >= threshold nodes
+        //   (checked with a count that stops at threshold), so small
+        //   or skewed parts are folded sequentially by TreeWalker
+        // - splitting stops after log2(parallelism) + 3 levels,
+        //   about 8 leaf tasks per core, which bounds the size checks
+        // - any Aggregation works (combine must not depend on which
+        //   thread runs it); parallelFold wraps a NodeFold in one
+        //   whose sequential part runs unboxed, so a long is boxed
+        //   per task, not per node
+        //
+        // Time Complexity: O(n / p + h)
+        // ------------------------------------------------------------
+        public interface Aggregation<R>{
+            R empty();
+            R combine(Node node,R left,R right);
+
+            // sequential fold of a whole subtree (leaf tasks)
+            default R fold(Node root){
+                return foldSequential(root,this);
+            }
+        }
+
+        static class LongAggregation implements Aggregation<Long>{
+            final long empty;
+            final NodeFold f;
+
+            LongAggregation(long empty,NodeFold f){
+                this.empty=empty;
+                this.f=f;
+            }
+
+            public Long empty(){
+                return empty;
+            }
+
+            public Long combine(Node node,Long left,Long right){
+                return f.combine(node,left,right);
+            }
+
+            @Override
+            public Long fold(Node root){
+                return new TreeWalker().fold(root,empty,f);
+            }
+        }
+
+        static final int PARALLEL_THRESHOLD=1<<10;
+
+        static int splitDepth(ForkJoinPool pool){
+            return 32-Integer.numberOfLeadingZeros(pool.getParallelism())+3;
+        }
+
+        // true if the subtree has at least k nodes, visits at most k
+        static boolean atLeast(Node root,int k){
+            TreeWalker walker=new TreeWalker().reset(root,Order.PRE);
+            int seen=0;
+            while(seen < k && walker.next() != null){
+                seen++;
+            }
+            return seen >= k;
+        }
+
+        @SuppressWarnings("unchecked")
+        public static <R> R foldSequential(Node root,Aggregation<R> agg){
+            TreeWalker walker=new TreeWalker().reset(root,Order.POST);
+            Object[] results=new Object[64];
+            int top=0;
+            Node node;
+            while((node=walker.next()) != null){
+                R right=node.right == null ? agg.empty() : (R)results[--top];
+                R left=node.left == null ? agg.empty() : (R)results[--top];
+                results[top]=null;
+                if(top == results.length){
+                    results=Arrays.copyOf(results,top*2);
+                }
+                results[top++]=agg.combine(node,left,right);
+            }
+            return root == null ? agg.empty() : (R)results[0];
+        }
+
+        static class AggregateTask<R> extends RecursiveTask<R>{
+            private static final long serialVersionUID=1L;
+
+            final Node node;
+            final Aggregation<R> agg;
+            final int threshold;
+            final int depth; // splits left
+
+            AggregateTask(Node node,Aggregation<R> agg,int threshold,int depth){
+                this.node=node;
+                this.agg=agg;
+                this.threshold=threshold;
+                this.depth=depth;
+            }
+
+            AggregateTask<R> child(Node child){
+                return new AggregateTask<>(child,agg,threshold,depth-1);
+            }
+
+            @Override
+            protected R compute(){
+                if(depth == 0){
+                    return agg.fold(node);
+                }
+                boolean bigLeft=atLeast(node.left,threshold);
+                boolean bigRight=atLeast(node.right,threshold);
+                if(bigLeft && bigRight){
+                    AggregateTask<R> leftTask=child(node.left);
+                    leftTask.fork();
+                    R right=child(node.right).compute();
+                    return agg.combine(node,leftTask.join(),right);
+                }
+                if(bigLeft){
+                    R right=agg.fold(node.right);
+                    return agg.combine(node,child(node.left).compute(),right);
+                }
+                if(bigRight){
+                    R left=agg.fold(node.left);
+                    return agg.combine(node,left,child(node.right).compute());
+                }
+                return agg.fold(node);
+            }
+        }
+
+        public static <R> R parallelAggregate(Node root,Aggregation<R> agg){
+            return parallelAggregate(root,agg,ForkJoinPool.commonPool(),PARALLEL_THRESHOLD);
+        }
+
+        public static <R> R parallelAggregate(Node root,Aggregation<R> agg,ForkJoinPool pool,int threshold){
             if(root == null){
-                return 0;
+                return agg.empty();
             }
+            return pool.invoke(new AggregateTask<>(root,agg,Math.max(1,threshold),splitDepth(pool)));
+        }
 
-            int leftChildSum=sumtree(root.left);
-            int rightChildSum=sumtree(root.right);
+        public static long parallelFold(Node root,long empty,NodeFold f){
+            return parallelFold(root,empty,f,ForkJoinPool.commonPool(),PARALLEL_THRESHOLD);
+        }
 
-            int oldData=root.data;
-            root.data=leftChildSum+rightChildSum;
+        public static long parallelFold(Node root,long empty,NodeFold f,ForkJoinPool pool,int threshold){
+            if(root == null){
+                return empty;
+            }
+            return parallelAggregate(root,new LongAggregation(empty,f),pool,threshold);
+        }
+
+        public static int parallelHeight(Node root){
+            return (int)parallelFold(root,0,(node,l,r) -> Math.max(l,r)+1);
+        }
+
+        public static int parallelCount(Node root){
+            return (int)parallelFold(root,0,(node,l,r) -> l+r+1);
+        }
 
-            return oldData+root.data;
+        public static int parallelSum(Node root){
+            return (int)parallelFold(root,0,(node,l,r) -> l+r+node.data);
         }
 
+        // Info(diam, h) packed into one long: diam in the high half, h in the low half
+        public static int parallelDiameter(Node root){
+            long packed=parallelFold(root,0,(node,l,r) -> {
+                long lh=l & 0xffffffffL;
+                long rh=r & 0xffffffffL;
+                long diam=Math.max(Math.max(l>>>32,r>>>32),lh+rh+1);
+                return diam<<32 | (Math.max(lh,rh)+1);
+            });
+            return (int)(packed>>>32);
+        }
+
+        // ------------------------------------------------------------
+        // Q25. LCA / Distance / Kth Ancestor Index (preprocessed)
+        //
+        // About:
+        // Q16 - Q20 walk the whole tree on every query. AncestorIndex
+        // does one iterative DFS and then answers queries from tables:
+        //
+        // - every node gets its preorder number as id, so a subtree
+        //   is a contiguous id range (this is the Euler tour with the
+        //   repeated entries dropped, half the memory)
+        // - LCA(u, v) for u < v is the parent of the shallowest node
+        //   with id in (u, v]. A sparse table over depths answers
+        //   that range-minimum in O(1).
+        // - up[j][v] is the 2^j-th ancestor of v (binary lifting), so
+        //   the kth ancestor takes one jump per set bit of k
+        // - distance = depth[u] + depth[v] - 2 * depth[lca]
+        // - values map to ids through an open addressing int table
+        //   (first node in preorder wins, like getPath)
+        //
+        // All tables are final and never change after the build, so
+        // any number of threads can query one index without locks.
+        //
+        // Time Complexity: build O(n log n),
+        // lca / distance O(1), kthAncestor O(log k)
+        // Space Complexity: O(n log n)
+        // ------------------------------------------------------------
+        public static class AncestorIndex{
+            final Node[] nodes;  // id -> node
+            final int[] parent;  // -1 for root
+            final int[] depth;
+            final int[][] sparse; // sparse[j][i]: shallowest id in [i, i + 2^j)
+            final int[][] up;     // up[j][v]: 2^j-th ancestor or -1
+            final int[] keys;     // value -> id table
+            final int[] ids;      // id + 1, 0 = empty slot
+            final int mask;
+
+            public AncestorIndex(Node root){
+                int n=count(root);
+                nodes=new Node[n];
+                parent=new int[n];
+                depth=new int[n];
+
+                // iterative preorder: id = visit number
+                Node[] stack=new Node[64];
+                int[] stackParent=new int[64];
+                int top=0;
+                int next=0;
+                if(root != null){
+                    stack[top]=root;
+                    stackParent[top++]=-1;
+                }
+                while(top > 0){
+                    Node node=stack[--top];
+                    int p=stackParent[top];
+                    int id=next++;
+                    nodes[id]=node;
+                    parent[id]=p;
+                    depth[id]=p < 0 ? 0 : depth[p]+1;
+                    if(top+2 > stack.length){
+                        stack=Arrays.copyOf(stack,stack.length*2);
+                        stackParent=Arrays.copyOf(stackParent,stackParent.length*2);
+                    }
+                    if(node.right != null){
+                        stack[top]=node.right;
+                        stackParent[top++]=id;
+                    }
+                    if(node.left != null){
+                        stack[top]=node.left;
+                        stackParent[top++]=id;
+                    }
+                }
+
+                int levels=Math.max(1,32-Integer.numberOfLeadingZeros(n));
+                sparse=new int[levels][];
+                sparse[0]=new int[n];
+                for(int i=0;i<n;i++){
+                    sparse[0][i]=i;
+                }
+                for(int j=1;j<levels;j++){
+                    int half=1<<(j-1);
+                    int[] prev=sparse[j-1];
+                    int[] curr=new int[n-(1<<j)+1];
+                    for(int i=0;i<curr.length;i++){
+                        curr[i]=shallower(prev[i],prev[i+half]);
+                    }
+                    sparse[j]=curr;
+                }
+
+                up=new int[levels][];
+                up[0]=parent;
+                for(int j=1;j<levels;j++){
+                    int[] prev=up[j-1];
+                    int[] curr=new int[n];
+                    for(int v=0;v<n;v++){
+                        curr[v]=prev[v] < 0 ? -1 : prev[prev[v]];
+                    }
+                    up[j]=curr;
+                }
+
+                int cap=Integer.highestOneBit(Math.max(2,n)*2-1)<<1;
+                keys=new int[cap];
+                ids=new int[cap];
+                mask=cap-1;
+                for(int id=0;id<n;id++){
+                    int value=nodes[id].data;
+                    int slot=hash(value)&mask;
+                    while(ids[slot] != 0 && keys[slot] != value){
+                        slot=(slot+1)&mask;
+                    }
+                    if(ids[slot] == 0){
+                        keys[slot]=value;
+                        ids[slot]=id+1;
+                    }
+                }
+            }
+
+            static int hash(int value){
+                int h=value*0x9E3779B9;
+                return h^(h>>>16);
+            }
+
+            int shallower(int a,int b){
+                return depth[a] <= depth[b] ? a : b;
+            }
+
+            public int size(){
+                return nodes.length;
+            }
+
+            // id of the first node holding value, -1 if absent
+            public int idOf(int value){
+                int slot=hash(value)&mask;
+                while(ids[slot] != 0){
+                    if(keys[slot] == value){
+                        return ids[slot]-1;
+                    }
+                    slot=(slot+1)&mask;
+                }
+                return -1;
+            }
+
+            public int lcaId(int u,int v){
+                if(u == v){
+                    return u;
+                }
+                if(u > v){
+                    int t=u;
+                    u=v;
+                    v=t;
+                }
+                // shallowest id in (u, v]
+                int from=u+1;
+                int j=31-Integer.numberOfLeadingZeros(v-from+1);
+                int min=shallower(sparse[j][from],sparse[j][v-(1<<j)+1]);
+                return parent[min];
+            }
+
+            public int kthAncestorId(int v,int k){
+                if(k < 0 || k > depth[v]){
+                    return -1;
+                }
+                for(int j=0;k > 0;j++,k>>>=1){
+                    if((k & 1) != 0){
+                        v=up[j][v];
+                    }
+                }
+                return v;
+            }
+
+            // like lowestCommonAncestorApproach1, null if a value is missing
+            public Node lca(int n1,int n2){
+                int u=idOf(n1);
+                int v=idOf(n2);
+                if(u < 0 || v < 0){
+                    return null;
+                }
+                return nodes[lcaId(u,v)];
+            }
+
+            // like minDistance, -1 if a value is missing
+            public int distance(int n1,int n2){
+                int u=idOf(n1);
+                int v=idOf(n2);
+                if(u < 0 || v < 0){
+                    return -1;
+                }
+                return depth[u]+depth[v]-2*depth[lcaId(u,v)];
+            }
+
+            // value of the kth ancestor of n, -1 if there is none
+            public int kthAncestor(int n,int k){
+                int v=idOf(n);
+                if(v < 0){
+                    return -1;
+                }
+                int a=kthAncestorId(v,k);
+                return a < 0 ? -1 : nodes[a].data;
+            }
+        }
+
+        // ------------------------------------------------------------
+        // Q26. Level Order Operators without per-node garbage
+        //
+        // About:
+        // Q5 and Q13 use a LinkedList queue (one list node per tree
+        // node), null markers between levels, an Info2 per node and
+        // a HashMap<Integer,Node> for horizontal distances.
+        // LevelScanner keeps everything in reusable arrays:
+        //
+        // - the queue is two parallel ring buffers, Node[] and int[]
+        //   (horizontal distance), growing by doubling when full
+        // - a level is processed by reading the queue size first and
+        //   polling exactly that many nodes (no null markers)
+        // - horizontal distance hd is stored at index hd + offset of
+        //   a plain int[]; hd moves by 1 per level, so the range
+        //   grows slowly and the array is re-centred when it is hit
+        //
+        // After warm-up a scan allocates only its result array.
+        // One LevelScanner must not be used by two threads at once.
+        //
+        // Time Complexity: O(n)
+        // Space Complexity: O(max level width + horizontal width)
+        // ------------------------------------------------------------
+        public static class LevelScanner{
+            Node[] ring=new Node[64];
+            int[] hdRing=new int[64];
+            int head;
+            int size;
+
+            int[] view=new int[64];      // value per hd, index hd + offset
+            boolean[] seen=new boolean[64];
+            int offset=32;
+            int minHd;
+            int maxHd;
+
+            void reset(){
+                while(size > 0){
+                    poll();
+                }
+                head=0;
+            }
+
+            void offer(Node node,int hd){
+                if(size == ring.length){
+                    Node[] nodes=new Node[size*2];
+                    int[] hds=new int[size*2];
+                    for(int i=0;i<size;i++){
+                        int j=(head+i)&(ring.length-1);
+                        nodes[i]=ring[j];
+                        hds[i]=hdRing[j];
+                    }
+                    ring=nodes;
+                    hdRing=hds;
+                    head=0;
+                }
+                int tail=(head+size)&(ring.length-1);
+                ring[tail]=node;
+                hdRing[tail]=hd;
+                size++;
+            }
+
+            // hd of the next node to poll
+            int peekHd(){
+                return hdRing[head];
+            }
+
+            Node poll(){
+                Node node=ring[head];
+                ring[head]=null;
+                head=(head+1)&(ring.length-1);
+                size--;
+                return node;
+            }
+
+            void offerChildren(Node node,int hd){
+                if(node.left != null){
+                    offer(node.left,hd-1);
+                }
+                if(node.right != null){
+                    offer(node.right,hd+1);
+                }
+            }
+
+            // same output as levelOrder (Q5)
+            public void printLevels(Node root){
+                if(root == null){
+                    System.out.println("Root Node is null.");
+                    return;
+                }
+                reset();
+                offer(root,0);
+                while(size > 0){
+                    for(int i=size;i>0;i--){
+                        Node curr=poll();
+                        System.out.print(curr.data+" ");
+                        offerChildren(curr,0);
+                    }
+                    System.out.println();
+                }
+            }
+
+            // values at level k (root is level 1), like kthLevel (Q14)
+            public int[] kthLevel(Node root,int k){
+                if(root == null || k < 1){
+                    return new int[0];
+                }
+                reset();
+                offer(root,0);
+                for(int level=1;level<k && size > 0;level++){
+                    for(int i=size;i>0;i--){
+                        offerChildren(poll(),0);
+                    }
+                }
+                int[] result=new int[size];
+                for(int i=0;i<result.length;i++){
+                    result[i]=poll().data;
+                }
+                return result;
+            }
+
+            // sum of each level, top to bottom
+            public long[] levelSums(Node root){
+                long[] sums=new long[16];
+                int levels=0;
+                reset();
+                if(root != null){
+                    offer(root,0);
+                }
+                while(size > 0){
+                    long sum=0;
+                    for(int i=size;i>0;i--){
+                        Node curr=poll();
+                        sum+=curr.data;
+                        offerChildren(curr,0);
+                    }
+                    if(levels == sums.length){
+                        sums=Arrays.copyOf(sums,levels*2);
+                    }
+                    sums[levels++]=sum;
+                }
+                return Arrays.copyOf(sums,levels);
+            }
+
+            // first node per hd from the top, left to right, like topView (Q13)
+            public int[] topView(Node root){
+                return view(root,false);
+            }
+
+            // last node per hd in level order (lowest, rightmost wins)
+            public int[] bottomView(Node root){
+                return view(root,true);
+            }
+
+            int[] view(Node root,boolean bottom){
+                if(root == null){
+                    return new int[0];
+                }
+                reset();
+                minHd=0;
+                maxHd=0;
+                Arrays.fill(seen,false);
+                offer(root,0);
+                while(size > 0){
+                    int hd=peekHd();
+                    Node curr=poll();
+                    if(hd < minHd || hd > maxHd){
+                        ensureHd(hd);
+                        minHd=Math.min(minHd,hd);
+                        maxHd=Math.max(maxHd,hd);
+                    }
+                    int idx=hd+offset;
+                    if(bottom || !seen[idx]){
+                        view[idx]=curr.data;
+                        seen[idx]=true;
+                    }
+                    offerChildren(curr,hd);
+                }
+                return Arrays.copyOfRange(view,minHd+offset,maxHd+offset+1);
+            }
+
+            // makes hd + offset a valid index, re-centring the arrays if needed
+            void ensureHd(int hd){
+                int idx=hd+offset;
+                if(idx >= 0 && idx < view.length){
+                    return;
+                }
+                int width=maxHd-minHd+1;
+                int length=view.length*2;
+                int newOffset=(length-width)/2-minHd;
+                int[] newView=new int[length];
+                boolean[] newSeen=new boolean[length];
+                System.arraycopy(view,minHd+offset,newView,minHd+newOffset,width);
+                System.arraycopy(seen,minHd+offset,newSeen,minHd+newOffset,width);
+                view=newView;
+                seen=newSeen;
+                offset=newOffset;
+            }
+        }
 
     // ------------------------------------------------------------
     // Main Method (Test Code)
@@ -80,7 +80,7 @@ public class HashMapCode {
         // Time Complexity: O(1)
         // ------------------------------------------------------------
         private int hashFunction(K key) {
-            return Math.abs(key.hashCode()) % bucketCount;
+            return (key.hashCode() & 0x7fffffff) % bucketCount;
         }
 
         // ------------------------------------------------------------
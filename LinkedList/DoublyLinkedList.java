@@ -13,6 +13,8 @@
  * Author: Aryan Nair
  */
 
+import java.util.HashMap;
+
 public class DoublyLL {
 
     // ------------------------------------------------------------
@@ -144,6 +146,479 @@ public class DoublyLL {
         System.out.println();
     }
 
+    // ------------------------------------------------------------
+    // Q6. Bottom-Up Merge Sort on the DLL (no recursion)
+    //
+    // Same idea as LinkedList.mergeSortBottomUp: merge runs of
+    // size 1, 2, 4, ... using only next pointers, then restore
+    // every prev pointer (and the tail) in one final pass.
+    //
+    // Time Complexity: O(n log n)
+    // Space Complexity: O(1)
+    // ------------------------------------------------------------
+    public static void sort() {
+        head = mergeSort(head);
+        tail = head;
+        while (tail != null && tail.next != null) {
+            tail = tail.next;
+        }
+    }
+
+    public static Node mergeSort(Node head) {
+        int length = 0;
+        for (Node temp = head; temp != null; temp = temp.next) {
+            length++;
+        }
+
+        Node dummy = new Node(-1);
+        dummy.next = head;
+
+        for (int step = 1; step < length; step <<= 1) {
+            Node prev = dummy;
+            Node curr = dummy.next;
+
+            while (curr != null) {
+                Node left = curr;
+                Node right = split(left, step);
+                curr = split(right, step);
+                prev = mergeAfter(left, right, prev);
+            }
+        }
+
+        // fix prev pointers
+        Node prev = null;
+        for (Node temp = dummy.next; temp != null; temp = temp.next) {
+            temp.prev = prev;
+            prev = temp;
+        }
+        return dummy.next;
+    }
+
+    // cuts the list after n nodes, returns the rest
+    static Node split(Node head, int n) {
+        for (int i = 1; head != null && i < n; i++) {
+            head = head.next;
+        }
+        if (head == null) {
+            return null;
+        }
+        Node rest = head.next;
+        head.next = null;
+        return rest;
+    }
+
+    // merges two sorted lists after tail, returns the new tail
+    static Node mergeAfter(Node left, Node right, Node tail) {
+        while (left != null && right != null) {
+            if (left.data <= right.data) {
+                tail.next = left;
+                left = left.next;
+            } else {
+                tail.next = right;
+                right = right.next;
+            }
+            tail = tail.next;
+        }
+
+        tail.next = left != null ? left : right;
+        while (tail.next != null) {
+            tail = tail.next;
+        }
+        return tail;
+    }
+
+    // ------------------------------------------------------------
+    // Q7. Bounded Caches: LRU, LFU and W-TinyLFU
+    //
+    // The static DLL above cannot unlink a node from the middle,
+    // which is exactly what a cache needs. DList is an instance
+    // based DLL with sentinel head / tail nodes, so addFirst,
+    // unlink and removeLast are all O(1) with no null checks.
+    // The key -> node index is a java.util.HashMap.
+    //
+    // - LRUCache: one DList in recency order, evicts the tail
+    // - LFUCache: one DList per access count (frequency bucket)
+    //   and the current minimum count; evicts the LRU entry of
+    //   the lowest bucket
+    // - WTinyLFUCache: small LRU "window" in front of a segmented
+    //   LRU main area (probation + protected). An entry leaving
+    //   the window only gets into the main area if a count-min
+    //   frequency sketch says it is used more often than the
+    //   entry it would evict (admission policy)
+    //
+    // Every cache counts hits, misses and evictions.
+    // Not thread-safe: guard shared instances with a lock.
+    //
+    // get / put: O(1) average
+    // ------------------------------------------------------------
+    static class CacheEntry<K, V> {
+        K key;
+        V value;
+        int freq;      // LFU: access count
+        int segment;   // W-TinyLFU: which list holds the entry
+        CacheEntry<K, V> prev;
+        CacheEntry<K, V> next;
+
+        CacheEntry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    static class DList<K, V> {
+        final CacheEntry<K, V> head = new CacheEntry<>(null, null); // sentinel
+        final CacheEntry<K, V> tail = new CacheEntry<>(null, null); // sentinel
+        int size;
+
+        DList() {
+            head.next = tail;
+            tail.prev = head;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void addFirst(CacheEntry<K, V> node) {
+            node.prev = head;
+            node.next = head.next;
+            head.next.prev = node;
+            head.next = node;
+            size++;
+        }
+
+        void unlink(CacheEntry<K, V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = node.next = null;
+            size--;
+        }
+
+        void moveToFront(CacheEntry<K, V> node) {
+            unlink(node);
+            addFirst(node);
+        }
+
+        // least recently used entry, or null
+        CacheEntry<K, V> last() {
+            return size == 0 ? null : tail.prev;
+        }
+
+        CacheEntry<K, V> removeLast() {
+            CacheEntry<K, V> node = last();
+            if (node != null) {
+                unlink(node);
+            }
+            return node;
+        }
+    }
+
+    static abstract class BoundedCache<K, V> {
+        final int capacity;
+        final HashMap<K, CacheEntry<K, V>> map = new HashMap<>();
+        int size;
+        long hits;
+        long misses;
+        long evictions;
+
+        BoundedCache(int capacity) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("capacity must be >= 1");
+            }
+            this.capacity = capacity;
+        }
+
+        // returns null on a miss
+        public abstract V get(K key);
+
+        public abstract void put(K key, V value);
+
+        public int size() {
+            return size;
+        }
+
+        public long hits() {
+            return hits;
+        }
+
+        public long misses() {
+            return misses;
+        }
+
+        public long evictions() {
+            return evictions;
+        }
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        void evict(DList<K, V> list, CacheEntry<K, V> node) {
+            list.unlink(node);
+            map.remove(node.key);
+            size--;
+            evictions++;
+        }
+    }
+
+    public static class LRUCache<K, V> extends BoundedCache<K, V> {
+        final DList<K, V> list = new DList<>();
+
+        public LRUCache(int capacity) {
+            super(capacity);
+        }
+
+        public V get(K key) {
+            CacheEntry<K, V> node = map.get(key);
+            if (node == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+            list.moveToFront(node);
+            return node.value;
+        }
+
+        public void put(K key, V value) {
+            CacheEntry<K, V> node = map.get(key);
+            if (node != null) {
+                node.value = value;
+                list.moveToFront(node);
+                return;
+            }
+            if (size == capacity) {
+                evict(list, list.last());
+            }
+            node = new CacheEntry<>(key, value);
+            list.addFirst(node);
+            map.put(key, node);
+            size++;
+        }
+    }
+
+    public static class LFUCache<K, V> extends BoundedCache<K, V> {
+        final HashMap<Integer, DList<K, V>> buckets = new HashMap<>();
+        int minFreq;
+
+        public LFUCache(int capacity) {
+            super(capacity);
+        }
+
+        public V get(K key) {
+            CacheEntry<K, V> node = map.get(key);
+            if (node == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+            touch(node);
+            return node.value;
+        }
+
+        public void put(K key, V value) {
+            CacheEntry<K, V> node = map.get(key);
+            if (node != null) {
+                node.value = value;
+                touch(node);
+                return;
+            }
+            if (size == capacity) {
+                DList<K, V> lowest = buckets.get(minFreq);
+                evict(lowest, lowest.last());
+                if (lowest.isEmpty()) {
+                    buckets.remove(minFreq);
+                }
+            }
+            node = new CacheEntry<>(key, value);
+            node.freq = 1;
+            bucket(1).addFirst(node);
+            map.put(key, node);
+            size++;
+            minFreq = 1;
+        }
+
+        // moves node from bucket freq to bucket freq + 1
+        void touch(CacheEntry<K, V> node) {
+            DList<K, V> old = buckets.get(node.freq);
+            old.unlink(node);
+            if (old.isEmpty()) {
+                buckets.remove(node.freq);
+                if (minFreq == node.freq) {
+                    minFreq++;
+                }
+            }
+            node.freq++;
+            bucket(node.freq).addFirst(node);
+        }
+
+        DList<K, V> bucket(int freq) {
+            DList<K, V> list = buckets.get(freq);
+            if (list == null) {
+                list = new DList<>();
+                buckets.put(freq, list);
+            }
+            return list;
+        }
+    }
+
+    public static class WTinyLFUCache<K, V> extends BoundedCache<K, V> {
+        static final int WINDOW = 0;
+        static final int PROBATION = 1;
+        static final int PROTECTED = 2;
+
+        final DList<K, V> window = new DList<>();
+        final DList<K, V> probation = new DList<>();
+        final DList<K, V> protectedList = new DList<>();
+        final int windowCapacity;
+        final int mainCapacity;
+        final int protectedCapacity;
+        final FrequencySketch sketch;
+
+        public WTinyLFUCache(int capacity) {
+            super(capacity);
+            windowCapacity = Math.max(1, capacity / 100);
+            mainCapacity = capacity - windowCapacity;
+            protectedCapacity = mainCapacity * 8 / 10;
+            sketch = new FrequencySketch(capacity);
+        }
+
+        public V get(K key) {
+            sketch.increment(key.hashCode());
+            CacheEntry<K, V> node = map.get(key);
+            if (node == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+            onAccess(node);
+            return node.value;
+        }
+
+        public void put(K key, V value) {
+            sketch.increment(key.hashCode());
+            CacheEntry<K, V> node = map.get(key);
+            if (node != null) {
+                node.value = value;
+                onAccess(node);
+                return;
+            }
+
+            node = new CacheEntry<>(key, value);
+            node.segment = WINDOW;
+            window.addFirst(node);
+            map.put(key, node);
+            size++;
+
+            if (window.size > windowCapacity) {
+                CacheEntry<K, V> candidate = window.removeLast();
+                candidate.segment = PROBATION;
+                probation.addFirst(candidate);
+                if (probation.size + protectedList.size > mainCapacity) {
+                    admitOrReject(candidate);
+                }
+            }
+        }
+
+        // main area is one over capacity: drop candidate or victim
+        void admitOrReject(CacheEntry<K, V> candidate) {
+            CacheEntry<K, V> victim = probation.last();
+            if (victim == candidate) {
+                victim = protectedList.last();
+            }
+            if (victim == null) {
+                evict(probation, candidate);
+                return;
+            }
+            int candidateFreq = sketch.frequency(candidate.key.hashCode());
+            int victimFreq = sketch.frequency(victim.key.hashCode());
+
+            if (candidateFreq > victimFreq) {
+                evict(victim.segment == PROBATION ? probation : protectedList, victim);
+            } else {
+                evict(probation, candidate);
+            }
+        }
+
+        void onAccess(CacheEntry<K, V> node) {
+            if (node.segment == WINDOW) {
+                window.moveToFront(node);
+            } else if (node.segment == PROTECTED) {
+                protectedList.moveToFront(node);
+            } else {
+                // probation hit: promote, demote protected overflow
+                probation.unlink(node);
+                node.segment = PROTECTED;
+                protectedList.addFirst(node);
+                if (protectedList.size > protectedCapacity) {
+                    CacheEntry<K, V> demoted = protectedList.removeLast();
+                    demoted.segment = PROBATION;
+                    probation.addFirst(demoted);
+                }
+            }
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Count-Min Sketch with aging (used by WTinyLFUCache)
+    //
+    // 4 rows of counters, each row indexed by a different hash of
+    // the key; the estimate is the minimum of the 4 counters.
+    // Counters stop at 15, and after 10 * capacity increments all
+    // counters are halved so old popularity fades out.
+    // ------------------------------------------------------------
+    static class FrequencySketch {
+        static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+        final int[][] table;
+        final int mask;
+        final int sampleSize;
+        int additions;
+
+        FrequencySketch(int capacity) {
+            int width = Integer.highestOneBit(Math.max(16, capacity - 1)) << 1;
+            table = new int[SEEDS.length][width];
+            mask = width - 1;
+            sampleSize = 10 * Math.max(capacity, 16);
+        }
+
+        int index(int hash, int row) {
+            int h = (hash ^ (hash >>> 16)) * SEEDS[row];
+            return (h ^ (h >>> 15)) & mask;
+        }
+
+        void increment(int hash) {
+            boolean added = false;
+            for (int row = 0; row < table.length; row++) {
+                int i = index(hash, row);
+                if (table[row][i] < 15) {
+                    table[row][i]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions == sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(int hash) {
+            int min = Integer.MAX_VALUE;
+            for (int row = 0; row < table.length; row++) {
+                min = Math.min(min, table[row][index(hash, row)]);
+            }
+            return min;
+        }
+
+        void reset() {
+            for (int[] row : table) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] >>= 1;
+                }
+            }
+            additions /= 2;
+        }
+    }
+
     // ------------------------------------------------------------
     // Main Method (Test Code)
     // ------------------------------------------------------------
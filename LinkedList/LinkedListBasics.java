@@ -13,6 +13,13 @@
  * Author: Aryan Nair
  */
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+
 public class LinkedList {
 
     // ------------------------------------------------------------
@@ -364,6 +371,669 @@ public class LinkedList {
         return prev;
     }
 
+    // ------------------------------------------------------------
+    // Q12. Unrolled Linked List
+    //
+    // Each node (block) stores up to blockSize ints in an int[]
+    // instead of one int, so a scan follows one pointer per block
+    // and reads the values from contiguous memory. State is per
+    // instance, so any number of lists can exist.
+    //
+    // Invariant: every block except the last is at least half full
+    // - addLast on a full tail starts a new empty block, so a list
+    //   built by appending has all blocks full
+    // - insert into a full block splits it into two halves
+    // - remove from a block that drops below half either merges
+    //   it with the next block or borrows values from it
+    //
+    // Index based operations skip whole blocks using their counts.
+    //
+    // Time Complexity:
+    // get / set / add / remove at index: O(n / B + B)
+    // addLast: O(1) amortized, search: O(n)
+    // ------------------------------------------------------------
+    public static class UnrolledLinkedList {
+        static class Block {
+            int[] items;
+            int count;
+            Block next;
+
+            Block(int capacity) {
+                items = new int[capacity];
+            }
+        }
+
+        final int blockSize;
+        Block head;
+        Block tail;
+        int size;
+
+        public UnrolledLinkedList() {
+            this(64);
+        }
+
+        public UnrolledLinkedList(int blockSize) {
+            if (blockSize < 2) {
+                throw new IllegalArgumentException("blockSize must be >= 2");
+            }
+            this.blockSize = blockSize;
+            head = tail = new Block(blockSize);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public void addLast(int data) {
+            if (tail.count == blockSize) {
+                // a full block already meets the invariant, so keep it
+                // full and start an empty one (appended lists stay packed)
+                Block block = new Block(blockSize);
+                tail.next = block;
+                tail = block;
+            }
+            tail.items[tail.count++] = data;
+            size++;
+        }
+
+        public void addFirst(int data) {
+            add(0, data);
+        }
+
+        public void add(int idx, int data) {
+            if (idx < 0 || idx > size) {
+                throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + size);
+            }
+            if (idx == size) {
+                addLast(data);
+                return;
+            }
+
+            // find block holding position idx
+            Block block = head;
+            while (idx > block.count || (idx == block.count && block.next != null)) {
+                idx -= block.count;
+                block = block.next;
+            }
+
+            if (block.count == blockSize) {
+                split(block);
+                if (idx > block.count) {
+                    idx -= block.count;
+                    block = block.next;
+                }
+            }
+            System.arraycopy(block.items, idx, block.items, idx + 1, block.count - idx);
+            block.items[idx] = data;
+            block.count++;
+            size++;
+        }
+
+        public int get(int idx) {
+            checkIndex(idx);
+            Block block = head;
+            while (idx >= block.count) {
+                idx -= block.count;
+                block = block.next;
+            }
+            return block.items[idx];
+        }
+
+        public void set(int idx, int data) {
+            checkIndex(idx);
+            Block block = head;
+            while (idx >= block.count) {
+                idx -= block.count;
+                block = block.next;
+            }
+            block.items[idx] = data;
+        }
+
+        public int remove(int idx) {
+            checkIndex(idx);
+            Block prev = null;
+            Block block = head;
+            while (idx >= block.count) {
+                idx -= block.count;
+                prev = block;
+                block = block.next;
+            }
+
+            int value = block.items[idx];
+            System.arraycopy(block.items, idx + 1, block.items, idx, block.count - idx - 1);
+            block.count--;
+            size--;
+
+            if (block.count < blockSize / 2) {
+                rebalance(prev, block);
+            }
+            return value;
+        }
+
+        // returns index of first occurrence, else -1
+        public int search(int key) {
+            int base = 0;
+            for (Block block = head; block != null; block = block.next) {
+                int[] items = block.items;
+                for (int i = 0; i < block.count; i++) {
+                    if (items[i] == key) {
+                        return base + i;
+                    }
+                }
+                base += block.count;
+            }
+            return -1;
+        }
+
+        public long sum() {
+            long total = 0;
+            for (Block block = head; block != null; block = block.next) {
+                int[] items = block.items;
+                for (int i = 0; i < block.count; i++) {
+                    total += items[i];
+                }
+            }
+            return total;
+        }
+
+        public int[] toArray() {
+            int[] result = new int[size];
+            int pos = 0;
+            for (Block block = head; block != null; block = block.next) {
+                System.arraycopy(block.items, 0, result, pos, block.count);
+                pos += block.count;
+            }
+            return result;
+        }
+
+        public void print() {
+            if (size == 0) {
+                System.out.println("LL is empty.");
+                return;
+            }
+            for (Block block = head; block != null; block = block.next) {
+                for (int i = 0; i < block.count; i++) {
+                    System.out.print(block.items[i] + " -> ");
+                }
+            }
+            System.out.println("null");
+        }
+
+        void checkIndex(int idx) {
+            if (idx < 0 || idx >= size) {
+                throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + size);
+            }
+        }
+
+        // moves the upper half of a full block into a new block after it
+        void split(Block block) {
+            Block newBlock = new Block(blockSize);
+            int half = block.count / 2;
+            int moved = block.count - half;
+            System.arraycopy(block.items, half, newBlock.items, 0, moved);
+            newBlock.count = moved;
+            block.count = half;
+
+            newBlock.next = block.next;
+            block.next = newBlock;
+            if (tail == block) {
+                tail = newBlock;
+            }
+        }
+
+        // block has fallen below half full
+        void rebalance(Block prev, Block block) {
+            Block next = block.next;
+
+            if (next == null) {
+                // last block may be small, but drop it once it is empty
+                if (block.count == 0 && prev != null) {
+                    prev.next = null;
+                    tail = prev;
+                }
+                return;
+            }
+
+            if (block.count + next.count <= blockSize) {
+                // merge next into block
+                System.arraycopy(next.items, 0, block.items, block.count, next.count);
+                block.count += next.count;
+                block.next = next.next;
+                if (tail == next) {
+                    tail = block;
+                }
+            } else {
+                // borrow from next until block is half full
+                int take = blockSize / 2 - block.count;
+                System.arraycopy(next.items, 0, block.items, block.count, take);
+                block.count += take;
+                System.arraycopy(next.items, take, next.items, 0, next.count - take);
+                next.count -= take;
+            }
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Q13. Bottom-Up Merge Sort on Linked List (no recursion)
+    //
+    // Q10 finds the middle with getMid on every level and
+    // recurses, so a long list overflows the call stack. This
+    // version merges runs of size 1, 2, 4, ... in place:
+    // each pass cuts two runs off the list, merges them and
+    // splices the result after the previous merged part.
+    //
+    // Stable (equal values keep their order).
+    //
+    // Time Complexity: O(n log n)
+    // Space Complexity: O(1) (no recursion, one dummy node)
+    // ------------------------------------------------------------
+    public static Node mergeSortBottomUp(Node head) {
+        int length = 0;
+        for (Node temp = head; temp != null; temp = temp.next) {
+            length++;
+        }
+
+        Node dummy = new Node(-1);
+        dummy.next = head;
+
+        for (int step = 1; step < length; step <<= 1) {
+            Node prev = dummy;      // tail of the merged part
+            Node curr = dummy.next; // start of the unmerged part
+
+            while (curr != null) {
+                Node left = curr;
+                Node right = split(left, step);
+                curr = split(right, step);
+                prev = mergeAfter(left, right, prev);
+            }
+        }
+        return dummy.next;
+    }
+
+    // cuts the list after n nodes, returns the rest
+    static Node split(Node head, int n) {
+        for (int i = 1; head != null && i < n; i++) {
+            head = head.next;
+        }
+        if (head == null) {
+            return null;
+        }
+        Node rest = head.next;
+        head.next = null;
+        return rest;
+    }
+
+    // merges two sorted lists after tail, returns the new tail
+    static Node mergeAfter(Node left, Node right, Node tail) {
+        while (left != null && right != null) {
+            if (left.data <= right.data) {
+                tail.next = left;
+                left = left.next;
+            } else {
+                tail.next = right;
+                right = right.next;
+            }
+            tail = tail.next;
+        }
+
+        tail.next = left != null ? left : right;
+        while (tail.next != null) {
+            tail = tail.next;
+        }
+        return tail;
+    }
+
+    // ------------------------------------------------------------
+    // Q14. Lock-Free Concurrent Skip List Map
+    //
+    // A sorted singly linked list (level 0) plus "express lanes"
+    // above it: every node is also linked on levels 1..topLevel,
+    // where topLevel is random (level l has ~1/2^l of the nodes),
+    // so a search drops down the levels in O(log n) steps.
+    //
+    // Thread safety without locks (Herlihy & Shavit):
+    // - every next pointer is an AtomicMarkableReference; the
+    //   mark on node.next[l] means "node is deleted on level l"
+    // - put links the new node with a CAS on level 0 (this is
+    //   the moment it becomes visible), then on the upper levels
+    // - the value slot is CASed too: put replaces the old value
+    //   with a CAS, remove CASes it to null (the moment it is
+    //   removed, so exactly one remove wins and no put is lost),
+    //   then marks the node's next pointers top-down; a put that
+    //   finds a taken value helps mark the node instead of waiting
+    // - find() physically unlinks marked nodes it walks over
+    // - get / ceiling / floor / range iteration never write; they
+    //   simply step over marked nodes
+    //
+    // Keys are long, values generic (null values not allowed).
+    //
+    // Time Complexity (expected): put / get / remove / ceiling /
+    // floor: O(log n), range iteration: O(log n + k)
+    // ------------------------------------------------------------
+    public static class ConcurrentSkipListMap<V> {
+        static final int MAX_LEVEL = 31;
+
+        public static class Node<V> {
+            static final VarHandle VALUE;
+
+            static {
+                try {
+                    VALUE = MethodHandles.lookup().findVarHandle(Node.class, "value", Object.class);
+                } catch (ReflectiveOperationException e) {
+                    throw new ExceptionInInitializerError(e);
+                }
+            }
+
+            final long key;
+            volatile V value; // null once removed
+            final AtomicMarkableReference<Node<V>>[] next;
+            final int topLevel;
+
+            Node(long key, V value, int topLevel) {
+                this.key = key;
+                this.value = value;
+                this.topLevel = topLevel;
+                next = newLinks(topLevel + 1);
+                for (int i = 0; i <= topLevel; i++) {
+                    next[i] = new AtomicMarkableReference<>(null, false);
+                }
+            }
+
+            public long key() {
+                return key;
+            }
+
+            public V value() {
+                return value;
+            }
+
+            boolean casValue(V expected, V update) {
+                return VALUE.compareAndSet(this, expected, update);
+            }
+        }
+
+        // generic arrays can't be created directly
+        @SuppressWarnings("unchecked")
+        static <V> AtomicMarkableReference<Node<V>>[] newLinks(int length) {
+            return (AtomicMarkableReference<Node<V>>[]) new AtomicMarkableReference<?>[length];
+        }
+
+        @SuppressWarnings("unchecked")
+        static <V> Node<V>[] newNodes(int length) {
+            return (Node<V>[]) new Node<?>[length];
+        }
+
+        final Node<V> head = new Node<>(Long.MIN_VALUE, null, MAX_LEVEL); // -infinity
+        final Node<V> tail = new Node<>(Long.MAX_VALUE, null, MAX_LEVEL); // +infinity
+
+        public ConcurrentSkipListMap() {
+            for (int i = 0; i <= MAX_LEVEL; i++) {
+                head.next[i].set(tail, false);
+            }
+        }
+
+        // node comes before key (tail never does)
+        boolean before(Node<V> node, long key) {
+            return node != tail && node.key < key;
+        }
+
+        boolean holds(Node<V> node, long key) {
+            return node != tail && node.key == key;
+        }
+
+        static int randomLevel() {
+            int level = Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt() | (1 << MAX_LEVEL));
+            return Math.min(level, MAX_LEVEL);
+        }
+
+        // fills preds / succs around key on every level,
+        // unlinking marked nodes on the way; true if key is present
+        boolean find(long key, Node<V>[] preds, Node<V>[] succs) {
+            boolean[] marked = {false};
+            retry:
+            while (true) {
+                Node<V> pred = head;
+                Node<V> curr = null;
+                for (int level = MAX_LEVEL; level >= 0; level--) {
+                    curr = pred.next[level].getReference();
+                    while (true) {
+                        if (curr == tail) {
+                            break;
+                        }
+                        Node<V> succ = curr.next[level].get(marked);
+                        while (marked[0]) {
+                            // curr is deleted: unlink it
+                            if (!pred.next[level].compareAndSet(curr, succ, false, false)) {
+                                continue retry;
+                            }
+                            curr = succ;
+                            if (curr == tail) {
+                                break;
+                            }
+                            succ = curr.next[level].get(marked);
+                        }
+                        if (before(curr, key)) {
+                            pred = curr;
+                            curr = succ;
+                        } else {
+                            break;
+                        }
+                    }
+                    preds[level] = pred;
+                    succs[level] = curr;
+                }
+                return holds(curr, key);
+            }
+        }
+
+        // returns the previous value, or null if key was new
+        public V put(long key, V value) {
+            if (value == null) {
+                throw new NullPointerException("null values are not supported");
+            }
+            int topLevel = randomLevel();
+            Node<V>[] preds = newNodes(MAX_LEVEL + 1);
+            Node<V>[] succs = newNodes(MAX_LEVEL + 1);
+
+            while (true) {
+                if (find(key, preds, succs)) {
+                    Node<V> node = succs[0];
+                    V old = node.value;
+                    if (old == null) {
+                        // a remove took the value but may not have marked
+                        // the node yet: finish that for it instead of
+                        // waiting, then find() unlinks it and we retry
+                        markAll(node);
+                        continue;
+                    }
+                    if (node.casValue(old, value)) {
+                        return old;
+                    }
+                    continue; // another put replaced it, retry
+                }
+
+                Node<V> newNode = new Node<>(key, value, topLevel);
+                for (int level = 0; level <= topLevel; level++) {
+                    newNode.next[level].set(succs[level], false);
+                }
+
+                // linking level 0 makes the key visible
+                if (!preds[0].next[0].compareAndSet(succs[0], newNode, false, false)) {
+                    continue;
+                }
+
+                for (int level = 1; level <= topLevel; level++) {
+                    while (true) {
+                        Node<V> pred = preds[level];
+                        Node<V> succ = succs[level];
+                        Node<V> current = newNode.next[level].getReference();
+
+                        // point newNode at the fresh successor first
+                        if (current != succ && !newNode.next[level].compareAndSet(current, succ, false, false)) {
+                            return null; // marked: a remove already took it
+                        }
+                        if (pred.next[level].compareAndSet(succ, newNode, false, false)) {
+                            break;
+                        }
+                        if (!find(key, preds, succs) || succs[0] != newNode) {
+                            return null; // removed while linking
+                        }
+                    }
+                }
+                return null;
+            }
+        }
+
+        public V get(long key) {
+            Node<V> node = lowerBound(key);
+            return holds(node, key) ? node.value : null;
+        }
+
+        public boolean containsKey(long key) {
+            return get(key) != null;
+        }
+
+        // returns the removed value, or null if key was absent
+        public V remove(long key) {
+            Node<V>[] preds = newNodes(MAX_LEVEL + 1);
+            Node<V>[] succs = newNodes(MAX_LEVEL + 1);
+
+            if (!find(key, preds, succs)) {
+                return null;
+            }
+            Node<V> node = succs[0];
+
+            // taking the value decides which thread removed it
+            V old;
+            do {
+                old = node.value;
+                if (old == null) {
+                    return null; // someone else removed it
+                }
+            } while (!node.casValue(old, null));
+
+            markAll(node);
+            find(key, preds, succs); // unlink
+            return old;
+        }
+
+        // marks every level top-down; safe to run from several
+        // threads at once (a put helping a remove)
+        void markAll(Node<V> node) {
+            boolean[] marked = {false};
+            for (int level = node.topLevel; level >= 0; level--) {
+                Node<V> succ = node.next[level].get(marked);
+                while (!marked[0]) {
+                    node.next[level].compareAndSet(succ, succ, false, true);
+                    succ = node.next[level].get(marked);
+                }
+            }
+        }
+
+        // first live node with key >= given key (or tail)
+        Node<V> lowerBound(long key) {
+            boolean[] marked = {false};
+            Node<V> pred = head;
+            Node<V> curr = null;
+
+            for (int level = MAX_LEVEL; level >= 0; level--) {
+                curr = pred.next[level].getReference();
+                while (curr != tail) {
+                    Node<V> succ = curr.next[level].get(marked);
+                    if (marked[0]) {
+                        curr = succ; // skip deleted node
+                        continue;
+                    }
+                    if (before(curr, key)) {
+                        pred = curr;
+                        curr = succ;
+                    } else {
+                        break;
+                    }
+                }
+            }
+            return curr;
+        }
+
+        // smallest entry with key >= given key, or null
+        public Node<V> ceiling(long key) {
+            Node<V> node = lowerBound(key);
+            while (node != tail && node.value == null) {
+                node = node.next[0].getReference(); // removal in progress
+            }
+            return node == tail ? null : node;
+        }
+
+        // largest entry with key <= given key, or null
+        public Node<V> floor(long key) {
+            boolean[] marked = {false};
+            Node<V> pred = head;
+
+            for (int level = MAX_LEVEL; level >= 0; level--) {
+                Node<V> curr = pred.next[level].getReference();
+                while (curr != tail) {
+                    Node<V> succ = curr.next[level].get(marked);
+                    if (marked[0]) {
+                        curr = succ;
+                        continue;
+                    }
+                    if (curr.key <= key) {
+                        if (curr.value != null) {
+                            pred = curr; // skip a removal in progress
+                        }
+                        curr = succ;
+                    } else {
+                        break;
+                    }
+                }
+            }
+            return pred == head ? null : pred;
+        }
+
+        // entries with from <= key < to, in key order
+        // (weakly consistent: sees some of the concurrent updates)
+        public Iterator<Node<V>> range(long from, long to) {
+            return new Iterator<Node<V>>() {
+                Node<V> next = advance(lowerBound(from));
+
+                Node<V> advance(Node<V> node) {
+                    while (node != tail && (node.value == null || node.next[0].isMarked())) {
+                        node = node.next[0].getReference();
+                    }
+                    return node != tail && node.key < to ? node : null;
+                }
+
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                public Node<V> next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    Node<V> result = next;
+                    next = advance(result.next[0].getReference());
+                    return result;
+                }
+            };
+        }
+
+        // counts live entries, O(n)
+        public int size() {
+            int count = 0;
+            for (Node<V> node = head.next[0].getReference(); node != tail; node = node.next[0].getReference()) {
+                if (node.value != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
     // ------------------------------------------------------------
     // Main Method (Test Code)
     // ------------------------------------------------------------
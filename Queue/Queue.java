@@ -14,11 +14,29 @@
  * Author: Aryan Nair
  */
 
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.ArrayDeque;
 import java.util.Queue;
 import java.util.Stack;
 import java.util.Deque;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
 
 public class QueueBasics {
 
@@ -637,6 +655,1093 @@ public class QueueBasics {
 
 
 
+    // ============================================================
+    // Q16. Lock-Free Single-Producer / Single-Consumer Ring Buffer
+    // About:
+    // Instance based replacement for CircularQueueArr that one
+    // producer thread and one consumer thread can use at the
+    // same time without locks.
+    //
+    // - Capacity is rounded up to a power of two, so the slot
+    //   index is (sequence & mask) instead of a modulo
+    // - head (next slot to read) and tail (next slot to write) are
+    //   ever-increasing sequence counters; size = tail - head
+    // - head and tail live on separate cache lines (padding
+    //   classes below) so the two threads never invalidate each
+    //   other's line (false sharing)
+    // - Producer writes the slot, then publishes tail with a
+    //   release store; consumer reads tail with an acquire load
+    //   before reading the slot (and the same for head)
+    // - Each side caches the other side's counter and only
+    //   re-reads it when the cached value says full / empty
+    // - poll / peek return a caller-chosen value when empty (any
+    //   int can be an element, so there is no fixed sentinel);
+    //   streams that use every int value should use drain, whose
+    //   count says how many slots are real
+    //
+    // offer / poll: O(1)
+    // offer(src, n) / drain(dst): O(n) with one publish per batch
+    // ============================================================
+    static abstract class SpscPad0 {
+        long p00, p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    static abstract class SpscHead extends SpscPad0 {
+        long head;       // written by consumer only
+        long tailCache;  // consumer's copy of tail
+    }
+
+    static abstract class SpscPad1 extends SpscHead {
+        long p10, p11, p12, p13, p14, p15, p16, p17;
+    }
+
+    static abstract class SpscTail extends SpscPad1 {
+        long tail;       // written by producer only
+        long headCache;  // producer's copy of head
+    }
+
+    static abstract class SpscPad2 extends SpscTail {
+        long p20, p21, p22, p23, p24, p25, p26, p27;
+    }
+
+    static class SpscRingBuffer extends SpscPad2 {
+        static final VarHandle HEAD;
+        static final VarHandle TAIL;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                HEAD = lookup.findVarHandle(SpscHead.class, "head", long.class);
+                TAIL = lookup.findVarHandle(SpscTail.class, "tail", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        final int[] buffer;
+        final int mask;
+
+        public SpscRingBuffer(int capacity) {
+            if (capacity < 1 || capacity > (1 << 30)) {
+                throw new IllegalArgumentException("capacity: " + capacity);
+            }
+            int size = 1;
+            while (size < capacity) {
+                size <<= 1;
+            }
+            buffer = new int[size];
+            mask = size - 1;
+        }
+
+        public int capacity() {
+            return buffer.length;
+        }
+
+        // approximate when called while the other thread is active
+        public int size() {
+            long h = (long) HEAD.getAcquire(this);
+            long t = (long) TAIL.getAcquire(this);
+            return (int) (t - h);
+        }
+
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+
+        // ---------------- producer side ----------------
+
+        public boolean offer(int value) {
+            long t = tail;
+            if (t - headCache >= buffer.length) {
+                headCache = (long) HEAD.getAcquire(this);
+                if (t - headCache >= buffer.length) {
+                    return false; // full
+                }
+            }
+            buffer[(int) t & mask] = value;
+            TAIL.setRelease(this, t + 1);
+            return true;
+        }
+
+        // adds up to n values from src, returns how many were added
+        public int offer(int[] src, int n) {
+            long t = tail;
+            long free = buffer.length - (t - headCache);
+            if (free < n) {
+                headCache = (long) HEAD.getAcquire(this);
+                free = buffer.length - (t - headCache);
+            }
+            int count = (int) Math.min(free, n);
+            if (count <= 0) {
+                return 0;
+            }
+
+            // copy in at most two pieces (before and after wrap)
+            int index = (int) t & mask;
+            int first = Math.min(count, buffer.length - index);
+            System.arraycopy(src, 0, buffer, index, first);
+            System.arraycopy(src, first, buffer, 0, count - first);
+
+            TAIL.setRelease(this, t + count);
+            return count;
+        }
+
+        // ---------------- consumer side ----------------
+
+        // returns ifEmpty when there is nothing to read
+        public int poll(int ifEmpty) {
+            long h = head;
+            if (h >= tailCache) {
+                tailCache = (long) TAIL.getAcquire(this);
+                if (h >= tailCache) {
+                    return ifEmpty;
+                }
+            }
+            int value = buffer[(int) h & mask];
+            HEAD.setRelease(this, h + 1);
+            return value;
+        }
+
+        public int peek(int ifEmpty) {
+            long h = head;
+            if (h >= tailCache) {
+                tailCache = (long) TAIL.getAcquire(this);
+                if (h >= tailCache) {
+                    return ifEmpty;
+                }
+            }
+            return buffer[(int) h & mask];
+        }
+
+        // moves up to dst.length values into dst, returns how many
+        public int drain(int[] dst) {
+            long h = head;
+            long available = tailCache - h;
+            if (available < dst.length) {
+                tailCache = (long) TAIL.getAcquire(this);
+                available = tailCache - h;
+            }
+            int count = (int) Math.min(available, dst.length);
+            if (count <= 0) {
+                return 0;
+            }
+
+            int index = (int) h & mask;
+            int first = Math.min(count, buffer.length - index);
+            System.arraycopy(buffer, index, dst, 0, first);
+            System.arraycopy(buffer, 0, dst, first, count - first);
+
+            HEAD.setRelease(this, h + count);
+            return count;
+        }
+    }
+
+    // ============================================================
+    // Q17. Multi-Producer / Multi-Consumer Bounded Queue
+    //      (Vyukov-style ring with per-slot sequence numbers)
+    // About:
+    // Any number of threads may offer and poll at the same time.
+    //
+    // - Every slot has a sequence number telling whose turn it is:
+    //   seq == pos       -> slot free for the producer of pos
+    //   seq == pos + 1   -> slot holds the value for consumer of pos
+    //   after reading, the consumer sets seq = pos + capacity,
+    //   which frees the slot for the next lap
+    // - Producers claim positions with a CAS on tail, consumers
+    //   with a CAS on head; no locks on the fast path
+    // - Batch offer / drain claim k positions with a single CAS,
+    //   then fill / read the slots and publish each sequence
+    // - A pluggable WaitStrategy decides what blocking put / take
+    //   do while the queue is full / empty
+    // - null elements are rejected (poll uses null for "empty")
+    //
+    // offer / poll: O(1) (lock-free)
+    // offer(src, n) / drain(dst): O(k) with one CAS per batch
+    // ============================================================
+    interface WaitStrategy {
+        // called repeatedly while waiting; attempt counts from 0
+        void idle(int attempt);
+
+        // called after every successful offer / poll
+        void signal();
+    }
+
+    // lowest latency, burns a full core while waiting
+    static class BusySpinWait implements WaitStrategy {
+        public void idle(int attempt) {
+            Thread.onSpinWait();
+        }
+
+        public void signal() {
+        }
+    }
+
+    // spins for a while, then gives the core to other threads
+    static class YieldingWait implements WaitStrategy {
+        public void idle(int attempt) {
+            if (attempt < 100) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+
+        public void signal() {
+        }
+    }
+
+    // spins, yields, then parks with growing back-off (max 1 ms)
+    static class ParkingWait implements WaitStrategy {
+        public void idle(int attempt) {
+            if (attempt < 100) {
+                Thread.onSpinWait();
+            } else if (attempt < 200) {
+                Thread.yield();
+            } else {
+                long nanos = 1_000L << Math.min(attempt - 200, 10);
+                LockSupport.parkNanos(nanos);
+            }
+        }
+
+        public void signal() {
+        }
+    }
+
+    // sleeps on a Condition until signalled; uses a j.u.c lock
+    // instead of synchronized so virtual threads unmount from
+    // their carrier thread while waiting
+    static class BlockingWait implements WaitStrategy {
+        final ReentrantLock lock = new ReentrantLock();
+        final Condition changed = lock.newCondition();
+        final AtomicInteger waiters = new AtomicInteger();
+
+        public void idle(int attempt) {
+            if (attempt < 50) {
+                Thread.onSpinWait();
+                return;
+            }
+            lock.lock();
+            try {
+                waiters.incrementAndGet();
+                // timed wait covers a signal sent just before we slept
+                changed.await(1, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                waiters.decrementAndGet();
+                lock.unlock();
+            }
+        }
+
+        public void signal() {
+            if (waiters.get() == 0) {
+                return;
+            }
+            lock.lock();
+            try {
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    static abstract class MpmcPad0 {
+        long p00, p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    static abstract class MpmcHead extends MpmcPad0 {
+        volatile long head; // next position to consume
+    }
+
+    static abstract class MpmcPad1 extends MpmcHead {
+        long p10, p11, p12, p13, p14, p15, p16, p17;
+    }
+
+    static abstract class MpmcTail extends MpmcPad1 {
+        volatile long tail; // next position to produce
+    }
+
+    static abstract class MpmcPad2 extends MpmcTail {
+        long p20, p21, p22, p23, p24, p25, p26, p27;
+    }
+
+    static class MpmcQueue<E> extends MpmcPad2 {
+        static final VarHandle HEAD;
+        static final VarHandle TAIL;
+        static final VarHandle SEQ = MethodHandles.arrayElementVarHandle(long[].class);
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                HEAD = lookup.findVarHandle(MpmcHead.class, "head", long.class);
+                TAIL = lookup.findVarHandle(MpmcTail.class, "tail", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        final Object[] buffer;
+        final long[] sequences;
+        final int mask;
+        final WaitStrategy waitStrategy;
+
+        public MpmcQueue(int capacity, WaitStrategy waitStrategy) {
+            if (capacity < 2 || capacity > (1 << 30)) {
+                throw new IllegalArgumentException("capacity: " + capacity);
+            }
+            int size = 1;
+            while (size < capacity) {
+                size <<= 1;
+            }
+            buffer = new Object[size];
+            sequences = new long[size];
+            mask = size - 1;
+            this.waitStrategy = waitStrategy;
+
+            for (int i = 0; i < size; i++) {
+                sequences[i] = i;
+            }
+        }
+
+        public int capacity() {
+            return buffer.length;
+        }
+
+        // approximate while other threads are active
+        public int size() {
+            long h = head;
+            long t = tail;
+            return (int) Math.max(0, t - h);
+        }
+
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+
+        // returns false when the queue is full
+        public boolean offer(E value) {
+            if (value == null) {
+                throw new NullPointerException("null elements are not supported");
+            }
+            long pos = tail;
+            int index;
+            while (true) {
+                index = (int) pos & mask;
+                long seq = (long) SEQ.getAcquire(sequences, index);
+                long dif = seq - pos;
+
+                if (dif == 0) {
+                    if (TAIL.compareAndSet(this, pos, pos + 1)) {
+                        break;
+                    }
+                    pos = tail;
+                } else if (dif < 0) {
+                    return false; // slot still holds last lap's value
+                } else {
+                    pos = tail; // another producer took pos
+                }
+            }
+            buffer[index] = value;
+            SEQ.setRelease(sequences, index, pos + 1);
+            waitStrategy.signal();
+            return true;
+        }
+
+        // returns null when the queue is empty
+        @SuppressWarnings("unchecked")
+        public E poll() {
+            long pos = head;
+            int index;
+            while (true) {
+                index = (int) pos & mask;
+                long seq = (long) SEQ.getAcquire(sequences, index);
+                long dif = seq - (pos + 1);
+
+                if (dif == 0) {
+                    if (HEAD.compareAndSet(this, pos, pos + 1)) {
+                        break;
+                    }
+                    pos = head;
+                } else if (dif < 0) {
+                    return null; // not produced yet
+                } else {
+                    pos = head; // another consumer took pos
+                }
+            }
+            E value = (E) buffer[index];
+            buffer[index] = null;
+            SEQ.setRelease(sequences, index, pos + mask + 1);
+            waitStrategy.signal();
+            return value;
+        }
+
+        public void put(E value) {
+            int attempt = 0;
+            while (!offer(value)) {
+                waitStrategy.idle(attempt++);
+            }
+        }
+
+        public E take() {
+            int attempt = 0;
+            E value;
+            while ((value = poll()) == null) {
+                waitStrategy.idle(attempt++);
+            }
+            return value;
+        }
+
+        // claims up to n slots at once and publishes src[0..k)
+        // returns k (0 when full)
+        public int offer(E[] src, int n) {
+            // check everything before claiming: a claimed slot
+            // that is never published would block its consumer
+            n = Math.min(n, src.length);
+            for (int i = 0; i < n; i++) {
+                if (src[i] == null) {
+                    throw new NullPointerException("null element at index " + i);
+                }
+            }
+            long pos;
+            int count;
+            while (true) {
+                long h = head; // read head first so tail - h never exceeds capacity
+                pos = tail;
+                count = (int) Math.min(n, buffer.length - (pos - h));
+                if (count <= 0) {
+                    return 0;
+                }
+                if (TAIL.compareAndSet(this, pos, pos + count)) {
+                    break;
+                }
+            }
+
+            for (int i = 0; i < count; i++) {
+                long p = pos + i;
+                int index = (int) p & mask;
+                // a consumer may still be reading last lap's value
+                int attempt = 0;
+                while ((long) SEQ.getAcquire(sequences, index) != p) {
+                    Thread.onSpinWait();
+                    attempt++;
+                    if (attempt > 1000) {
+                        Thread.yield();
+                    }
+                }
+                buffer[index] = src[i];
+                SEQ.setRelease(sequences, index, p + 1);
+            }
+            waitStrategy.signal();
+            return count;
+        }
+
+        // claims up to dst.length values at once, returns how many
+        @SuppressWarnings("unchecked")
+        public int drain(E[] dst) {
+            long pos;
+            int count;
+            while (true) {
+                pos = head;
+                long t = tail;
+                count = (int) Math.min(dst.length, t - pos);
+                if (count <= 0) {
+                    return 0;
+                }
+                if (HEAD.compareAndSet(this, pos, pos + count)) {
+                    break;
+                }
+            }
+
+            for (int i = 0; i < count; i++) {
+                long p = pos + i;
+                int index = (int) p & mask;
+                // a producer may have claimed p but not published yet
+                int attempt = 0;
+                while ((long) SEQ.getAcquire(sequences, index) != p + 1) {
+                    Thread.onSpinWait();
+                    attempt++;
+                    if (attempt > 1000) {
+                        Thread.yield();
+                    }
+                }
+                dst[i] = (E) buffer[index];
+                buffer[index] = null;
+                SEQ.setRelease(sequences, index, p + mask + 1);
+            }
+            waitStrategy.signal();
+            return count;
+        }
+    }
+
+    // ============================================================
+    // Q18. Queue using Two Stacks (Amortized O(1))
+    // About:
+    // Fixes Q4 / Q5: values are pushed on the "in" stack and
+    // popped from the "out" stack. Elements move from in to out
+    // only when out is empty, so every element is moved once.
+    // Both stacks are growable int[] arrays (no boxing, no
+    // synchronized java.util.Stack) and the state is per instance.
+    //
+    // Enqueue: O(1)
+    // Dequeue: O(1) amortized
+    // ============================================================
+    static class AmortizedQueue {
+        int[] in = new int[16];
+        int inSize;
+        int[] out = new int[16];
+        int outSize;
+
+        public boolean isEmpty() {
+            return inSize == 0 && outSize == 0;
+        }
+
+        public int size() {
+            return inSize + outSize;
+        }
+
+        public void add(int value) {
+            if (inSize == in.length) {
+                in = Arrays.copyOf(in, inSize * 2);
+            }
+            in[inSize++] = value;
+        }
+
+        public int remove() {
+            if (isEmpty()) {
+                System.out.println("Queue is empty.");
+                return -1;
+            }
+            transferIfNeeded();
+            return out[--outSize];
+        }
+
+        public int peek() {
+            if (isEmpty()) {
+                System.out.println("Queue is empty.");
+                return -1;
+            }
+            transferIfNeeded();
+            return out[outSize - 1];
+        }
+
+        // pop everything from in and push on out (reverses order)
+        void transferIfNeeded() {
+            if (outSize > 0) {
+                return;
+            }
+            if (out.length < inSize) {
+                out = new int[in.length];
+            }
+            while (inSize > 0) {
+                out[outSize++] = in[--inSize];
+            }
+        }
+    }
+
+    // ============================================================
+    // Q19. Persistent (Immutable) Queue - Okasaki Real-Time Queue
+    // About:
+    // add / remove never change a queue, they return a new one
+    // that shares almost all nodes with the old one. Keeping an
+    // old reference is a free snapshot.
+    //
+    // - front is a lazy list, rear is a plain list in reverse
+    // - when |rear| becomes |front| + 1, front is replaced by the
+    //   lazy "rotate(front, rear)" = front ++ reverse(rear)
+    // - schedule points into front; each operation forces one
+    //   more node of it, so the rotation is paid for one step at
+    //   a time and no single call is ever O(n)
+    //
+    // add / remove / peek: O(1) worst case
+    // Safe to share between threads (nodes are memoized safely).
+    // ============================================================
+    static final class Stream {
+        final int value;
+        Stream next;
+        volatile Supplier<Stream> rest; // null once forced
+
+        Stream(int value, Stream next) {
+            this.value = value;
+            this.next = next;
+        }
+
+        Stream(int value, Supplier<Stream> rest) {
+            this.value = value;
+            this.rest = rest;
+        }
+
+        Stream tail() {
+            Supplier<Stream> r = rest;
+            if (r != null) {
+                next = r.get();
+                rest = null; // volatile write publishes next
+            }
+            return next;
+        }
+    }
+
+    static final class PersistentQueue {
+        static final PersistentQueue EMPTY = new PersistentQueue(null, null, null, 0);
+
+        final Stream front;
+        final Stream rear;
+        final Stream schedule;
+        final int size;
+
+        PersistentQueue(Stream front, Stream rear, Stream schedule, int size) {
+            this.front = front;
+            this.rear = rear;
+            this.schedule = schedule;
+            this.size = size;
+        }
+
+        public static PersistentQueue empty() {
+            return EMPTY;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public PersistentQueue add(int value) {
+            return exec(front, new Stream(value, rear), schedule, size + 1);
+        }
+
+        public PersistentQueue remove() {
+            if (isEmpty()) {
+                System.out.println("Queue is empty.");
+                return this;
+            }
+            return exec(front.tail(), rear, schedule, size - 1);
+        }
+
+        public int peek() {
+            if (isEmpty()) {
+                System.out.println("Queue is empty.");
+                return -1;
+            }
+            return front.value;
+        }
+
+        // values from front to rear
+        public int[] toArray() {
+            int[] result = new int[size];
+            PersistentQueue q = this;
+            for (int i = 0; i < size; i++) {
+                result[i] = q.peek();
+                q = q.remove();
+            }
+            return result;
+        }
+
+        // force one scheduled node, or start a new rotation
+        static PersistentQueue exec(Stream front, Stream rear, Stream schedule, int size) {
+            if (schedule != null) {
+                return new PersistentQueue(front, rear, schedule.tail(), size);
+            }
+            Stream rotated = rotate(front, rear, null);
+            return new PersistentQueue(rotated, null, rotated, size);
+        }
+
+        // front ++ reverse(rear) ++ acc, where |rear| == |front| + 1
+        static Stream rotate(Stream front, Stream rear, Stream acc) {
+            if (front == null) {
+                return new Stream(rear.value, acc);
+            }
+            Stream newAcc = new Stream(rear.value, acc);
+            return new Stream(front.value, () -> rotate(front.tail(), rear.next, newAcc));
+        }
+    }
+
+    // ============================================================
+    // Q20. First Non-Repeating Character - Streaming Engine
+    // About:
+    // Same question as Q7, but for endless input over any
+    // alphabet (bytes, full char range, token ids ...).
+    //
+    // - Symbols seen exactly once are kept in a doubly linked
+    //   list (prev[] / next[] arrays indexed by symbol) in the
+    //   order they first appeared; the head is the answer
+    // - When a symbol repeats it is unlinked in O(1) and marked
+    //   so it never enters the list again
+    // - Results are pushed to an IntConsumer as soon as each
+    //   symbol is read (-1 = no non-repeating symbol yet), so
+    //   nothing is buffered and nothing is boxed
+    //
+    // Time Complexity: O(1) per symbol
+    // Space Complexity: O(alphabet)
+    // ============================================================
+    static class FirstNonRepeatingStream {
+        static final byte UNSEEN = 0;
+        static final byte ONCE = 1;
+        static final byte REPEATED = 2;
+
+        final byte[] state;
+        final int[] prev;
+        final int[] next;
+        int head = -1;
+        int tail = -1;
+
+        public FirstNonRepeatingStream(int alphabetSize) {
+            state = new byte[alphabetSize];
+            prev = new int[alphabetSize];
+            next = new int[alphabetSize];
+        }
+
+        // current answer without consuming anything
+        public int first() {
+            return head;
+        }
+
+        // consumes one symbol, returns the current answer
+        public int accept(int symbol) {
+            if (symbol < 0 || symbol >= state.length) {
+                throw new IllegalArgumentException("symbol outside alphabet: " + symbol);
+            }
+            byte st = state[symbol];
+            if (st == UNSEEN) {
+                state[symbol] = ONCE;
+                // link at tail
+                prev[symbol] = tail;
+                next[symbol] = -1;
+                if (tail == -1) {
+                    head = symbol;
+                } else {
+                    next[tail] = symbol;
+                }
+                tail = symbol;
+            } else if (st == ONCE) {
+                state[symbol] = REPEATED;
+                // unlink
+                int p = prev[symbol];
+                int n = next[symbol];
+                if (p == -1) {
+                    head = n;
+                } else {
+                    next[p] = n;
+                }
+                if (n == -1) {
+                    tail = p;
+                } else {
+                    prev[n] = p;
+                }
+            }
+            return head;
+        }
+
+        public void accept(CharSequence chunk, IntConsumer sink) {
+            for (int i = 0; i < chunk.length(); i++) {
+                sink.accept(accept(chunk.charAt(i)));
+            }
+        }
+
+        // reads the channel to the end, one result per byte
+        public void consume(ReadableByteChannel channel, IntConsumer sink) throws IOException {
+            if (state.length < 256) {
+                throw new IllegalArgumentException("byte input needs an alphabet of 256");
+            }
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    sink.accept(accept(buffer.get() & 0xFF));
+                }
+                buffer.clear();
+            }
+        }
+
+        public void reset() {
+            Arrays.fill(state, UNSEEN);
+            head = -1;
+            tail = -1;
+        }
+    }
+
+    // ============================================================
+    // Q21. Work Queue Executor (Pipeline Stage)
+    // About:
+    // Drives work through the queues above instead of only
+    // storing it.
+    //
+    // - A stage owns one buffer: a bounded circular queue (like
+    //   Q2) or an unbounded linked queue (like Q3), both instance
+    //   based and guarded by a ReentrantLock (never synchronized,
+    //   so waiting virtual threads unmount from their carrier)
+    // - submit() blocks while the buffer is full: back-pressure
+    //   flows upstream instead of memory growing without bound
+    // - Each worker takes up to batchSize items per lock
+    //   acquisition and hands them to the handler as one batch
+    // - Each batch is a new list, so a handler may keep it
+    // - Stages chain by having a handler submit to the next stage
+    // - Worker threads come from the caller's ThreadFactory (pass
+    //   a virtual-thread factory on runtimes that have one)
+    // - Counters: submitted, completed (handler returned normally),
+    //   failed (handler threw), batches, current
+    //   and max queue depth, throughput (items / second)
+    //
+    // submit / take: O(1) (+ waiting when full / empty)
+    // ============================================================
+    interface TaskBuffer<T> {
+        boolean isFull();
+
+        int size();
+
+        void add(T value);
+
+        T remove();
+    }
+
+    // Q2 as an instance: fixed capacity ring
+    static class CircularQueue<T> implements TaskBuffer<T> {
+        final Object[] arr;
+        int front;
+        int size;
+
+        public CircularQueue(int capacity) {
+            arr = new Object[capacity];
+        }
+
+        public boolean isFull() {
+            return size == arr.length;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public void add(T value) {
+            arr[(front + size) % arr.length] = value;
+            size++;
+        }
+
+        @SuppressWarnings("unchecked")
+        public T remove() {
+            T value = (T) arr[front];
+            arr[front] = null;
+            front = (front + 1) % arr.length;
+            size--;
+            return value;
+        }
+    }
+
+    // Q3 as an instance: unbounded linked list
+    static class LinkedQueue<T> implements TaskBuffer<T> {
+        static class Node<T> {
+            T data;
+            Node<T> next;
+
+            Node(T data) {
+                this.data = data;
+            }
+        }
+
+        Node<T> head;
+        Node<T> tail;
+        int size;
+
+        public boolean isFull() {
+            return false;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public void add(T value) {
+            Node<T> newNode = new Node<>(value);
+            if (head == null) {
+                head = tail = newNode;
+            } else {
+                tail.next = newNode;
+                tail = newNode;
+            }
+            size++;
+        }
+
+        public T remove() {
+            T value = head.data;
+            head = head.next;
+            if (head == null) {
+                tail = null;
+            }
+            size--;
+            return value;
+        }
+    }
+
+    static class WorkStage<T> {
+        final String name;
+        final TaskBuffer<T> buffer;
+        final int batchSize;
+        final Consumer<List<T>> handler;
+
+        final ReentrantLock lock = new ReentrantLock();
+        final Condition notEmpty = lock.newCondition();
+        final Condition notFull = lock.newCondition();
+        final List<Thread> workers = new ArrayList<>();
+        boolean shutdown;
+
+        // metrics
+        final LongAdder submitted = new LongAdder();
+        final LongAdder completed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder batches = new LongAdder();
+        volatile int maxDepth;
+        final long startNanos = System.nanoTime();
+
+        // capacity <= 0 means unbounded (no back-pressure)
+        public WorkStage(String name, int capacity, int workerCount, int batchSize,
+                         Consumer<List<T>> handler, ThreadFactory threadFactory) {
+            if (workerCount < 1 || batchSize < 1) {
+                throw new IllegalArgumentException("workerCount and batchSize must be >= 1");
+            }
+            this.name = name;
+            this.buffer = capacity > 0 ? new CircularQueue<>(capacity) : new LinkedQueue<>();
+            this.batchSize = batchSize;
+            this.handler = handler;
+
+            for (int i = 0; i < workerCount; i++) {
+                Thread worker = threadFactory.newThread(this::runWorker);
+                workers.add(worker);
+                worker.start();
+            }
+        }
+
+        // blocks while the queue is full
+        public void submit(T task) throws InterruptedException {
+            lock.lock();
+            try {
+                while (buffer.isFull()) {
+                    checkOpen();
+                    notFull.await();
+                }
+                checkOpen();
+                enqueue(task);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // returns false instead of waiting when the queue is full
+        public boolean trySubmit(T task) {
+            lock.lock();
+            try {
+                checkOpen();
+                if (buffer.isFull()) {
+                    return false;
+                }
+                enqueue(task);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void checkOpen() {
+            if (shutdown) {
+                throw new IllegalStateException("stage " + name + " is shut down");
+            }
+        }
+
+        void enqueue(T task) {
+            buffer.add(task);
+            submitted.increment();
+            if (buffer.size() > maxDepth) {
+                maxDepth = buffer.size();
+            }
+            notEmpty.signal();
+        }
+
+        void runWorker() {
+            while (true) {
+                List<T> batch = new ArrayList<>(batchSize);
+                lock.lock();
+                try {
+                    while (buffer.size() == 0) {
+                        if (shutdown) {
+                            return;
+                        }
+                        notEmpty.await();
+                    }
+                    while (batch.size() < batchSize && buffer.size() > 0) {
+                        batch.add(buffer.remove());
+                    }
+                    notFull.signalAll();
+                } catch (InterruptedException e) {
+                    return;
+                } finally {
+                    lock.unlock();
+                }
+
+                try {
+                    handler.accept(batch);
+                    completed.add(batch.size());
+                } catch (RuntimeException e) {
+                    failed.add(batch.size());
+                }
+                batches.increment();
+            }
+        }
+
+        // stop accepting work; workers finish what is queued
+        public void shutdown() {
+            lock.lock();
+            try {
+                shutdown = true;
+                notEmpty.signalAll();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void awaitTermination() throws InterruptedException {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+
+        public int depth() {
+            lock.lock();
+            try {
+                return buffer.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int maxDepth() {
+            return maxDepth;
+        }
+
+        public long submitted() {
+            return submitted.sum();
+        }
+
+        public long completed() {
+            return completed.sum();
+        }
+
+        public long failed() {
+            return failed.sum();
+        }
+
+        public long batches() {
+            return batches.sum();
+        }
+
+        // completed items per second since the stage started
+        public double throughput() {
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            return seconds == 0 ? 0 : completed.sum() / seconds;
+        }
+    }
+
     // ------------------------------------------------------------
     // Main Method (Test Code)
     // ------------------------------------------------------------
@@ -13,6 +13,9 @@
  * Author: Aryan Nair
  */
 
+import java.util.Arrays;
+import java.util.Comparator;
+
 public class BasicSorting {
 
     // ------------------------------------------------------------
@@ -160,6 +163,611 @@ public class BasicSorting {
         printArr(arr);
     }
 
+    // ------------------------------------------------------------
+    // Q5. Write a program to sort an array using an Adaptive
+    //     Merge Sort (TimSort-style natural runs)
+    //
+    // Description:
+    // Scans the array for natural runs (ascending, or strictly
+    // descending runs which are reversed in place), extends short
+    // runs to a minimum length with binary insertion sort, and
+    // merges runs from a stack that keeps run lengths balanced.
+    // Merges skip the parts that are already in place and switch
+    // to "galloping" (exponential search + block copy) when one
+    // run keeps winning.
+    //
+    // Stable: equal elements keep their original order.
+    //
+    // Time Complexity:
+    // Best Case (already sorted / reversed): O(n)
+    // Average/Worst Case: O(n log n)
+    //
+    // Space Complexity: O(n)
+    // ------------------------------------------------------------
+    static final int MIN_MERGE = 32;
+    static final int MIN_GALLOP = 7;
+
+    public static void adaptiveSort(int[] arr) {
+        new IntTimSort(arr).sort();
+    }
+
+    // Generic version using a Comparator
+    public static <T> void adaptiveSort(T[] arr, Comparator<? super T> c) {
+        new TimSort<>(arr, c).sort();
+    }
+
+    // minimum run length: n / 2^k with 16 <= result <= 32,
+    // plus one if any of the shifted-off bits were set
+    static int minRunLength(int n) {
+        int r = 0;
+        while (n >= MIN_MERGE) {
+            r |= (n & 1);
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    static class IntTimSort {
+        int[] arr;
+        int[] tmp = new int[0];
+        int minGallop = MIN_GALLOP;
+
+        // pending runs (base index and length)
+        int[] runBase = new int[49];
+        int[] runLen = new int[49];
+        int stackSize = 0;
+
+        IntTimSort(int[] arr) {
+            this.arr = arr;
+        }
+
+        void sort() {
+            int n = arr.length;
+            if (n < 2) {
+                return;
+            }
+            int minRun = minRunLength(n);
+            int lo = 0;
+
+            while (lo < n) {
+                int len = countRunAndMakeAscending(lo, n);
+
+                // extend short run to minRun with binary insertion sort
+                if (len < minRun) {
+                    int force = Math.min(minRun, n - lo);
+                    binaryInsertionSort(lo, lo + force, lo + len);
+                    len = force;
+                }
+
+                runBase[stackSize] = lo;
+                runLen[stackSize] = len;
+                stackSize++;
+                mergeCollapse();
+
+                lo += len;
+            }
+
+            // merge all remaining runs
+            while (stackSize > 1) {
+                int i = stackSize - 2;
+                if (i > 0 && runLen[i - 1] < runLen[i + 1]) {
+                    i--;
+                }
+                mergeAt(i);
+            }
+        }
+
+        // returns length of run starting at lo, reversing it if descending
+        int countRunAndMakeAscending(int lo, int hi) {
+            int runHi = lo + 1;
+            if (runHi == hi) {
+                return 1;
+            }
+
+            if (arr[runHi++] < arr[lo]) {
+                // strictly descending (strict keeps the sort stable)
+                while (runHi < hi && arr[runHi] < arr[runHi - 1]) {
+                    runHi++;
+                }
+                // reverse
+                for (int i = lo, j = runHi - 1; i < j; i++, j--) {
+                    int temp = arr[i];
+                    arr[i] = arr[j];
+                    arr[j] = temp;
+                }
+            } else {
+                while (runHi < hi && arr[runHi] >= arr[runHi - 1]) {
+                    runHi++;
+                }
+            }
+            return runHi - lo;
+        }
+
+        // arr[lo, start) is already sorted; insert arr[start, hi)
+        void binaryInsertionSort(int lo, int hi, int start) {
+            for (; start < hi; start++) {
+                int pivot = arr[start];
+                int left = lo;
+                int right = start;
+
+                // find first element greater than pivot
+                while (left < right) {
+                    int mid = (left + right) >>> 1;
+                    if (pivot < arr[mid]) {
+                        right = mid;
+                    } else {
+                        left = mid + 1;
+                    }
+                }
+                System.arraycopy(arr, left, arr, left + 1, start - left);
+                arr[left] = pivot;
+            }
+        }
+
+        // keeps runLen[i - 2] > runLen[i - 1] + runLen[i]
+        // and runLen[i - 1] > runLen[i] on the run stack
+        void mergeCollapse() {
+            while (stackSize > 1) {
+                int i = stackSize - 2;
+                if (i > 0 && runLen[i - 1] <= runLen[i] + runLen[i + 1]
+                        || i > 1 && runLen[i - 2] <= runLen[i] + runLen[i - 1]) {
+                    if (runLen[i - 1] < runLen[i + 1]) {
+                        i--;
+                    }
+                } else if (runLen[i] > runLen[i + 1]) {
+                    break;
+                }
+                mergeAt(i);
+            }
+        }
+
+        // merges run i with run i + 1
+        void mergeAt(int i) {
+            int base1 = runBase[i];
+            int len1 = runLen[i];
+            int base2 = runBase[i + 1];
+            int len2 = runLen[i + 1];
+
+            runLen[i] = len1 + len2;
+            if (i == stackSize - 3) {
+                runBase[i + 1] = runBase[i + 2];
+                runLen[i + 1] = runLen[i + 2];
+            }
+            stackSize--;
+
+            // elements of run1 <= first of run2 are already in place
+            int k = gallopRight(arr[base2], arr, base1, len1);
+            base1 += k;
+            len1 -= k;
+            if (len1 == 0) {
+                return;
+            }
+
+            // elements of run2 >= last of run1 are already in place
+            len2 = gallopLeft(arr[base1 + len1 - 1], arr, base2, len2);
+            if (len2 == 0) {
+                return;
+            }
+            mergeLo(base1, len1, base2, len2);
+        }
+
+        void mergeLo(int base1, int len1, int base2, int len2) {
+            if (tmp.length < len1) {
+                tmp = new int[Math.max(len1, Math.min(arr.length, tmp.length * 2))];
+            }
+            System.arraycopy(arr, base1, tmp, 0, len1);
+
+            int cursor1 = 0;      // pointer in tmp (run1)
+            int cursor2 = base2;  // pointer in arr (run2)
+            int dest = base1;     // pointer for merged output
+            int minGallop = this.minGallop;
+
+            outer:
+            while (true) {
+                int count1 = 0; // times in a row run1 won
+                int count2 = 0; // times in a row run2 won
+
+                // one element at a time until a run keeps winning
+                do {
+                    if (arr[cursor2] < tmp[cursor1]) {
+                        arr[dest++] = arr[cursor2++];
+                        count2++;
+                        count1 = 0;
+                        if (--len2 == 0) {
+                            break outer;
+                        }
+                    } else {
+                        arr[dest++] = tmp[cursor1++];
+                        count1++;
+                        count2 = 0;
+                        if (--len1 == 0) {
+                            break outer;
+                        }
+                    }
+                } while ((count1 | count2) < minGallop);
+
+                // galloping mode: copy whole blocks at once
+                do {
+                    count1 = gallopRight(arr[cursor2], tmp, cursor1, len1);
+                    if (count1 != 0) {
+                        System.arraycopy(tmp, cursor1, arr, dest, count1);
+                        dest += count1;
+                        cursor1 += count1;
+                        len1 -= count1;
+                        if (len1 == 0) {
+                            break outer;
+                        }
+                    }
+                    arr[dest++] = arr[cursor2++];
+                    if (--len2 == 0) {
+                        break outer;
+                    }
+
+                    count2 = gallopLeft(tmp[cursor1], arr, cursor2, len2);
+                    if (count2 != 0) {
+                        System.arraycopy(arr, cursor2, arr, dest, count2);
+                        dest += count2;
+                        cursor2 += count2;
+                        len2 -= count2;
+                        if (len2 == 0) {
+                            break outer;
+                        }
+                    }
+                    arr[dest++] = tmp[cursor1++];
+                    if (--len1 == 0) {
+                        break outer;
+                    }
+                    minGallop--;
+                } while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+
+                // penalty for leaving galloping mode
+                if (minGallop < 0) {
+                    minGallop = 0;
+                }
+                minGallop += 2;
+            }
+            this.minGallop = Math.max(1, minGallop);
+
+            // rest of run1 (rest of run2 is already in place)
+            if (len1 > 0) {
+                System.arraycopy(tmp, cursor1, arr, dest, len1);
+            }
+        }
+
+        // number of elements in a[base, base + len) that are <= key
+        static int gallopRight(int key, int[] a, int base, int len) {
+            if (len == 0 || a[base] > key) {
+                return 0;
+            }
+            int lastOfs = 0;
+            int ofs = 1;
+            while (ofs < len && a[base + ofs] <= key) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) {
+                    ofs = len; // overflow
+                }
+            }
+            ofs = Math.min(ofs, len);
+
+            // a[base + lastOfs] <= key < a[base + ofs]
+            lastOfs++;
+            while (lastOfs < ofs) {
+                int m = (lastOfs + ofs) >>> 1;
+                if (a[base + m] <= key) {
+                    lastOfs = m + 1;
+                } else {
+                    ofs = m;
+                }
+            }
+            return ofs;
+        }
+
+        // number of elements in a[base, base + len) that are < key
+        static int gallopLeft(int key, int[] a, int base, int len) {
+            if (len == 0 || a[base] >= key) {
+                return 0;
+            }
+            int lastOfs = 0;
+            int ofs = 1;
+            while (ofs < len && a[base + ofs] < key) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) {
+                    ofs = len; // overflow
+                }
+            }
+            ofs = Math.min(ofs, len);
+
+            // a[base + lastOfs] < key <= a[base + ofs]
+            lastOfs++;
+            while (lastOfs < ofs) {
+                int m = (lastOfs + ofs) >>> 1;
+                if (a[base + m] < key) {
+                    lastOfs = m + 1;
+                } else {
+                    ofs = m;
+                }
+            }
+            return ofs;
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Same algorithm as IntTimSort, comparing with a Comparator
+    // ------------------------------------------------------------
+    static class TimSort<T> {
+        T[] arr;
+        Comparator<? super T> c;
+        Object[] tmp = new Object[0];
+        int minGallop = MIN_GALLOP;
+
+        int[] runBase = new int[49];
+        int[] runLen = new int[49];
+        int stackSize = 0;
+
+        TimSort(T[] arr, Comparator<? super T> c) {
+            this.arr = arr;
+            this.c = c;
+        }
+
+        void sort() {
+            int n = arr.length;
+            if (n < 2) {
+                return;
+            }
+            int minRun = minRunLength(n);
+            int lo = 0;
+
+            while (lo < n) {
+                int len = countRunAndMakeAscending(lo, n);
+
+                if (len < minRun) {
+                    int force = Math.min(minRun, n - lo);
+                    binaryInsertionSort(lo, lo + force, lo + len);
+                    len = force;
+                }
+
+                runBase[stackSize] = lo;
+                runLen[stackSize] = len;
+                stackSize++;
+                mergeCollapse();
+
+                lo += len;
+            }
+
+            while (stackSize > 1) {
+                int i = stackSize - 2;
+                if (i > 0 && runLen[i - 1] < runLen[i + 1]) {
+                    i--;
+                }
+                mergeAt(i);
+            }
+        }
+
+        int countRunAndMakeAscending(int lo, int hi) {
+            int runHi = lo + 1;
+            if (runHi == hi) {
+                return 1;
+            }
+
+            if (c.compare(arr[runHi++], arr[lo]) < 0) {
+                while (runHi < hi && c.compare(arr[runHi], arr[runHi - 1]) < 0) {
+                    runHi++;
+                }
+                for (int i = lo, j = runHi - 1; i < j; i++, j--) {
+                    T temp = arr[i];
+                    arr[i] = arr[j];
+                    arr[j] = temp;
+                }
+            } else {
+                while (runHi < hi && c.compare(arr[runHi], arr[runHi - 1]) >= 0) {
+                    runHi++;
+                }
+            }
+            return runHi - lo;
+        }
+
+        void binaryInsertionSort(int lo, int hi, int start) {
+            for (; start < hi; start++) {
+                T pivot = arr[start];
+                int left = lo;
+                int right = start;
+
+                while (left < right) {
+                    int mid = (left + right) >>> 1;
+                    if (c.compare(pivot, arr[mid]) < 0) {
+                        right = mid;
+                    } else {
+                        left = mid + 1;
+                    }
+                }
+                System.arraycopy(arr, left, arr, left + 1, start - left);
+                arr[left] = pivot;
+            }
+        }
+
+        void mergeCollapse() {
+            while (stackSize > 1) {
+                int i = stackSize - 2;
+                if (i > 0 && runLen[i - 1] <= runLen[i] + runLen[i + 1]
+                        || i > 1 && runLen[i - 2] <= runLen[i] + runLen[i - 1]) {
+                    if (runLen[i - 1] < runLen[i + 1]) {
+                        i--;
+                    }
+                } else if (runLen[i] > runLen[i + 1]) {
+                    break;
+                }
+                mergeAt(i);
+            }
+        }
+
+        void mergeAt(int i) {
+            int base1 = runBase[i];
+            int len1 = runLen[i];
+            int base2 = runBase[i + 1];
+            int len2 = runLen[i + 1];
+
+            runLen[i] = len1 + len2;
+            if (i == stackSize - 3) {
+                runBase[i + 1] = runBase[i + 2];
+                runLen[i + 1] = runLen[i + 2];
+            }
+            stackSize--;
+
+            int k = gallopRight(arr[base2], arr, base1, len1);
+            base1 += k;
+            len1 -= k;
+            if (len1 == 0) {
+                return;
+            }
+
+            len2 = gallopLeft(arr[base1 + len1 - 1], arr, base2, len2);
+            if (len2 == 0) {
+                return;
+            }
+            mergeLo(base1, len1, base2, len2);
+        }
+
+        @SuppressWarnings("unchecked")
+        void mergeLo(int base1, int len1, int base2, int len2) {
+            if (tmp.length < len1) {
+                tmp = new Object[Math.max(len1, Math.min(arr.length, tmp.length * 2))];
+            }
+            T[] run1 = (T[]) tmp;
+            int copied = len1;
+            System.arraycopy(arr, base1, run1, 0, len1);
+
+            int cursor1 = 0;
+            int cursor2 = base2;
+            int dest = base1;
+            int minGallop = this.minGallop;
+
+            outer:
+            while (true) {
+                int count1 = 0;
+                int count2 = 0;
+
+                do {
+                    if (c.compare(arr[cursor2], run1[cursor1]) < 0) {
+                        arr[dest++] = arr[cursor2++];
+                        count2++;
+                        count1 = 0;
+                        if (--len2 == 0) {
+                            break outer;
+                        }
+                    } else {
+                        arr[dest++] = run1[cursor1++];
+                        count1++;
+                        count2 = 0;
+                        if (--len1 == 0) {
+                            break outer;
+                        }
+                    }
+                } while ((count1 | count2) < minGallop);
+
+                do {
+                    count1 = gallopRight(arr[cursor2], run1, cursor1, len1);
+                    if (count1 != 0) {
+                        System.arraycopy(run1, cursor1, arr, dest, count1);
+                        dest += count1;
+                        cursor1 += count1;
+                        len1 -= count1;
+                        if (len1 == 0) {
+                            break outer;
+                        }
+                    }
+                    arr[dest++] = arr[cursor2++];
+                    if (--len2 == 0) {
+                        break outer;
+                    }
+
+                    count2 = gallopLeft(run1[cursor1], arr, cursor2, len2);
+                    if (count2 != 0) {
+                        System.arraycopy(arr, cursor2, arr, dest, count2);
+                        dest += count2;
+                        cursor2 += count2;
+                        len2 -= count2;
+                        if (len2 == 0) {
+                            break outer;
+                        }
+                    }
+                    arr[dest++] = run1[cursor1++];
+                    if (--len1 == 0) {
+                        break outer;
+                    }
+                    minGallop--;
+                } while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+
+                if (minGallop < 0) {
+                    minGallop = 0;
+                }
+                minGallop += 2;
+            }
+            this.minGallop = Math.max(1, minGallop);
+
+            if (len1 > 0) {
+                System.arraycopy(run1, cursor1, arr, dest, len1);
+            }
+            // drop references so the buffer does not keep objects alive
+            Arrays.fill(tmp, 0, copied, null);
+        }
+
+        int gallopRight(T key, T[] a, int base, int len) {
+            if (len == 0 || c.compare(a[base], key) > 0) {
+                return 0;
+            }
+            int lastOfs = 0;
+            int ofs = 1;
+            while (ofs < len && c.compare(a[base + ofs], key) <= 0) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) {
+                    ofs = len;
+                }
+            }
+            ofs = Math.min(ofs, len);
+
+            lastOfs++;
+            while (lastOfs < ofs) {
+                int m = (lastOfs + ofs) >>> 1;
+                if (c.compare(a[base + m], key) <= 0) {
+                    lastOfs = m + 1;
+                } else {
+                    ofs = m;
+                }
+            }
+            return ofs;
+        }
+
+        int gallopLeft(T key, T[] a, int base, int len) {
+            if (len == 0 || c.compare(a[base], key) >= 0) {
+                return 0;
+            }
+            int lastOfs = 0;
+            int ofs = 1;
+            while (ofs < len && c.compare(a[base + ofs], key) < 0) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) {
+                    ofs = len;
+                }
+            }
+            ofs = Math.min(ofs, len);
+
+            lastOfs++;
+            while (lastOfs < ofs) {
+                int m = (lastOfs + ofs) >>> 1;
+                if (c.compare(a[base + m], key) < 0) {
+                    lastOfs = m + 1;
+                } else {
+                    ofs = m;
+                }
+            }
+            return ofs;
+        }
+    }
+
     // ------------------------------------------------------------
     // Main Method (Test Code)
     // ------------------------------------------------------------
@@ -170,5 +778,6 @@ public class BasicSorting {
         // bubbleSort(arr);
         // selectionSort(arr);
         // insertionSort(arr);
+        // adaptiveSort(arr);
     }
 }
@@ -18,7 +18,9 @@
  */
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Stack;
+import java.util.stream.IntStream;
 
 public class StackBasics {
 
@@ -155,7 +157,7 @@ public class StackBasics {
     // Space Complexity: O(n)
     // ------------------------------------------------------------
     public static void stockSpan(int[] stock) {
-        Stack<Integer> st = new Stack<>();
+        IntStack st = new IntStack();
         int[] span = new int[stock.length];
 
         span[0] = 1;
@@ -178,18 +180,15 @@ public class StackBasics {
     // ------------------------------------------------------------
     // Q7. Previous Greater Element
     // ------------------------------------------------------------
-    public static ArrayList<Integer> previousGreater(int[] arr) {
-        Stack<Integer> st = new Stack<>();
-        ArrayList<Integer> result = new ArrayList<>();
+    public static int[] previousGreater(int[] arr) {
+        IntStack st = new IntStack();
+        int[] result = new int[arr.length];
 
-        st.push(arr[0]);
-        result.add(-1);
-
-        for (int i = 1; i < arr.length; i++) {
+        for (int i = 0; i < arr.length; i++) {
             while (!st.isEmpty() && st.peek() <= arr[i]) {
                 st.pop();
             }
-            result.add(st.isEmpty() ? -1 : st.peek());
+            result[i] = st.isEmpty() ? -1 : st.peek();
             st.push(arr[i]);
         }
         return result;
@@ -199,7 +198,7 @@ public class StackBasics {
     // Q8. Valid Parenthesis Check
     // ------------------------------------------------------------
     public static boolean validParenthesis(String str) {
-        Stack<Character> st = new Stack<>();
+        CharStack st = new CharStack();
 
         for (int i = 0; i < str.length(); i++) {
             char curr = str.charAt(i);
@@ -221,7 +220,7 @@ public class StackBasics {
     // Q9. Duplicate Parenthesis Detection
     // ------------------------------------------------------------
     public static boolean duplicateParenthesis(String str) {
-        Stack<Character> st = new Stack<>();
+        CharStack st = new CharStack();
 
         for (int i = 0; i < str.length(); i++) {
             char curr = str.charAt(i);
@@ -250,7 +249,7 @@ public class StackBasics {
     // Space Complexity: O(n)
     // ------------------------------------------------------------
     public static int maxAreaHistogram(int[] height) {
-        Stack<Integer> st = new Stack<>();
+        IntStack st = new IntStack(height.length);
         int[] nsl = new int[height.length];
         int[] nsr = new int[height.length];
 
@@ -284,6 +283,505 @@ public class StackBasics {
         return maxArea;
     }
 
+    // ------------------------------------------------------------
+    // Q11. Primitive Stacks (int / long / char)
+    //
+    // Growable arrays with per-instance state. Unlike StackAL /
+    // StackLL / java.util.Stack there is no boxing, no Node per
+    // push and no synchronized call, so the monotonic-stack
+    // questions above (Q6 - Q10) allocate only the backing array.
+    //
+    // push: O(1) amortized, pop / peek: O(1)
+    // ------------------------------------------------------------
+    public static class IntStack {
+        int[] data;
+        int size;
+
+        public IntStack() {
+            this(16);
+        }
+
+        public IntStack(int capacity) {
+            data = new int[Math.max(capacity, 1)];
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public void push(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        public int pop() {
+            if (isEmpty()) {
+                System.out.println("Stack is empty.");
+                return Integer.MIN_VALUE;
+            }
+            return data[--size];
+        }
+
+        public int peek() {
+            if (isEmpty()) {
+                System.out.println("Stack is empty.");
+                return Integer.MIN_VALUE;
+            }
+            return data[size - 1];
+        }
+
+        // i-th element from the bottom
+        public int get(int i) {
+            return data[i];
+        }
+
+        public void clear() {
+            size = 0;
+        }
+    }
+
+    public static class LongStack {
+        long[] data;
+        int size;
+
+        public LongStack() {
+            this(16);
+        }
+
+        public LongStack(int capacity) {
+            data = new long[Math.max(capacity, 1)];
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public void push(long value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        public long pop() {
+            if (isEmpty()) {
+                System.out.println("Stack is empty.");
+                return Long.MIN_VALUE;
+            }
+            return data[--size];
+        }
+
+        public long peek() {
+            if (isEmpty()) {
+                System.out.println("Stack is empty.");
+                return Long.MIN_VALUE;
+            }
+            return data[size - 1];
+        }
+
+        public long get(int i) {
+            return data[i];
+        }
+
+        public void clear() {
+            size = 0;
+        }
+    }
+
+    public static class CharStack {
+        char[] data;
+        int size;
+
+        public CharStack() {
+            this(16);
+        }
+
+        public CharStack(int capacity) {
+            data = new char[Math.max(capacity, 1)];
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public void push(char value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        public char pop() {
+            if (isEmpty()) {
+                System.out.println("Stack is empty.");
+                return 0;
+            }
+            return data[--size];
+        }
+
+        public char peek() {
+            if (isEmpty()) {
+                System.out.println("Stack is empty.");
+                return 0;
+            }
+            return data[size - 1];
+        }
+
+        public void clear() {
+            size = 0;
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Q12. Streaming Stock Span
+    //
+    // Push one price at a time and get its span back at once.
+    // The stack keeps only prices that are still "visible"
+    // (strictly greater than everything after them) together
+    // with their position in the stream.
+    //
+    // Time Complexity: O(1) amortized per price
+    // Space Complexity: O(visible prices)
+    // ------------------------------------------------------------
+    public static class StockSpanStream {
+        final IntStack prices = new IntStack();
+        final LongStack positions = new LongStack();
+        long count;
+
+        public long accept(int price) {
+            while (!prices.isEmpty() && prices.peek() <= price) {
+                prices.pop();
+                positions.pop();
+            }
+            long span = prices.isEmpty() ? count + 1 : count - positions.peek();
+            prices.push(price);
+            positions.push(count);
+            count++;
+            return span;
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Q13. Streaming Previous Greater Element
+    //
+    // Same as Q7 but one value at a time; returns -1 when no
+    // earlier value is greater.
+    //
+    // Time Complexity: O(1) amortized per value
+    // ------------------------------------------------------------
+    public static class PreviousGreaterStream {
+        final IntStack st = new IntStack();
+
+        public int accept(int value) {
+            while (!st.isEmpty() && st.peek() <= value) {
+                st.pop();
+            }
+            int result = st.isEmpty() ? -1 : st.peek();
+            st.push(value);
+            return result;
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Q14. Streaming Maximum Area in Histogram (single pass)
+    //
+    // Bars arrive one at a time (or in chunks). The stack holds
+    // bars with increasing heights. When a lower bar arrives,
+    // every taller bar is popped and its rectangle is closed:
+    // it extends from the bar below it on the stack to the
+    // current position.
+    //
+    // maxArea() also accounts for bars still open on the stack,
+    // without popping them, so it can be asked at any time.
+    // Areas are long, so height * width cannot overflow.
+    //
+    // Time Complexity: O(1) amortized per bar, O(stack) per query
+    // ------------------------------------------------------------
+    public static class HistogramAreaStream {
+        final IntStack heights = new IntStack();
+        final LongStack positions = new LongStack();
+        long count;
+        long closedMax;
+
+        public void accept(int height) {
+            while (!heights.isEmpty() && heights.peek() >= height) {
+                long h = heights.pop();
+                positions.pop();
+                long left = positions.isEmpty() ? -1 : positions.peek();
+                closedMax = Math.max(closedMax, h * (count - left - 1));
+            }
+            heights.push(height);
+            positions.push(count);
+            count++;
+        }
+
+        public void accept(int[] chunk, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                accept(chunk[i]);
+            }
+        }
+
+        public long maxArea() {
+            long best = closedMax;
+            for (int i = heights.size() - 1; i >= 0; i--) {
+                long left = i == 0 ? -1 : positions.get(i - 1);
+                best = Math.max(best, (long) heights.get(i) * (count - left - 1));
+            }
+            return best;
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Q15. Maximal Rectangle of 1s in a Binary Matrix
+    //
+    // Row by row, heights[c] = number of consecutive 1s ending at
+    // the current row in column c. Every row is then a histogram
+    // and the answer is the best Q10 area over all rows.
+    //
+    // Parallel version splits the rows into bands:
+    // 1. (parallel)   each band records, per column, the run of 1s
+    //                 touching its last row and whether the whole
+    //                 column inside the band is 1s
+    // 2. (sequential) a prefix pass over the bands turns that into
+    //                 the starting heights of every band (the part
+    //                 of a rectangle coming from the bands above)
+    // 3. (parallel)   each band runs the row-by-row histogram scan
+    //                 from its starting heights
+    // Every rectangle is counted in the band holding its bottom row,
+    // so the result is the same as the sequential scan.
+    //
+    // Time Complexity: O(rows * cols), O(rows * cols / p) parallel
+    // Space Complexity: O(bands * cols)
+    // ------------------------------------------------------------
+    public static long maximalRectangle(int[][] matrix) {
+        if (matrix.length == 0) {
+            return 0;
+        }
+        int cols = matrix[0].length;
+        int[] heights = new int[cols];
+        return scanRows(matrix, 0, matrix.length, heights, new IntStack(cols));
+    }
+
+    public static long maximalRectangleParallel(int[][] matrix, int bands) {
+        int rows = matrix.length;
+        if (rows == 0) {
+            return 0;
+        }
+        int cols = matrix[0].length;
+        bands = Math.max(1, Math.min(bands, rows));
+        int bandRows = (rows + bands - 1) / bands;
+        int bandCount = (rows + bandRows - 1) / bandRows;
+
+        // phase 1: per band, run of 1s at the bottom of each column
+        int[][] bottomRun = new int[bandCount][];
+        IntStream.range(0, bandCount).parallel().forEach(b -> {
+            int from = b * bandRows;
+            int to = Math.min(rows, from + bandRows);
+            int[] run = new int[cols];
+            for (int r = from; r < to; r++) {
+                for (int c = 0; c < cols; c++) {
+                    run[c] = matrix[r][c] == 1 ? run[c] + 1 : 0;
+                }
+            }
+            bottomRun[b] = run;
+        });
+
+        // phase 2: starting heights of each band
+        int[][] startHeights = new int[bandCount][];
+        startHeights[0] = new int[cols];
+        for (int b = 1; b < bandCount; b++) {
+            int prevRows = Math.min(rows, b * bandRows) - (b - 1) * bandRows;
+            int[] prev = startHeights[b - 1];
+            int[] run = bottomRun[b - 1];
+            int[] start = new int[cols];
+            for (int c = 0; c < cols; c++) {
+                // whole column of the previous band is 1s -> extend
+                start[c] = run[c] == prevRows ? prev[c] + run[c] : run[c];
+            }
+            startHeights[b] = start;
+        }
+
+        // phase 3: histogram scan of each band
+        return IntStream.range(0, bandCount).parallel()
+                .mapToLong(b -> {
+                    int from = b * bandRows;
+                    int to = Math.min(rows, from + bandRows);
+                    return scanRows(matrix, from, to, startHeights[b], new IntStack(cols));
+                })
+                .max()
+                .orElse(0);
+    }
+
+    // updates heights row by row for rows [from, to), returns best area
+    static long scanRows(int[][] matrix, int from, int to, int[] heights, IntStack st) {
+        long best = 0;
+        for (int r = from; r < to; r++) {
+            int[] row = matrix[r];
+            for (int c = 0; c < heights.length; c++) {
+                heights[c] = row[c] == 1 ? heights[c] + 1 : 0;
+            }
+            best = Math.max(best, maxAreaHistogram(heights, st));
+        }
+        return best;
+    }
+
+    // single-pass Q10 on a reusable stack, with long areas
+    static long maxAreaHistogram(int[] height, IntStack st) {
+        st.clear();
+        long maxArea = 0;
+        int n = height.length;
+
+        for (int i = 0; i <= n; i++) {
+            int h = i == n ? 0 : height[i];
+            while (!st.isEmpty() && height[st.peek()] >= h) {
+                long bar = height[st.pop()];
+                int left = st.isEmpty() ? -1 : st.peek();
+                maxArea = Math.max(maxArea, bar * (i - left - 1));
+            }
+            st.push(i);
+        }
+        return maxArea;
+    }
+
+    // ------------------------------------------------------------
+    // Q16. Multi-Bracket Validator (chunked, parallel)
+    //
+    // Checks ()[]{} (or any configured pairs) and reports the
+    // index of the first error, or -1 when the input is valid.
+    // Other characters are ignored.
+    //
+    // Each chunk is reduced on its own to a summary:
+    // - closes: closing brackets it could not match (they may
+    //   match an opener in an earlier chunk)
+    // - opens: opening brackets still waiting for a closer
+    // - error: first mismatch found inside the chunk
+    // Joining two summaries matches left.opens against
+    // right.closes; this join is associative, so chunks can be
+    // scanned in parallel and combined in order.
+    //
+    // Error position (same as a left-to-right scan would give):
+    // - closer that does not match the open bracket -> its index
+    // - closer with nothing open                    -> its index
+    // - brackets left open at the end               -> index of
+    //                                                  the first one
+    //
+    // Time Complexity: O(n), O(n / p) for the chunk scans
+    // Space Complexity: O(unmatched brackets)
+    // ------------------------------------------------------------
+    public static class BracketValidator {
+        static final int CHUNK = 1 << 16;
+
+        final byte[] openType = new byte[Character.MAX_VALUE + 1];
+        final byte[] closeType = new byte[Character.MAX_VALUE + 1];
+
+        public BracketValidator() {
+            this("([{", ")]}");
+        }
+
+        // opens.charAt(i) pairs with closes.charAt(i)
+        public BracketValidator(String opens, String closes) {
+            if (opens.length() != closes.length() || opens.length() > 127) {
+                throw new IllegalArgumentException("opens and closes must pair up (max 127 pairs)");
+            }
+            for (int i = 0; i < opens.length(); i++) {
+                openType[opens.charAt(i)] = (byte) (i + 1);
+                closeType[closes.charAt(i)] = (byte) (i + 1);
+            }
+        }
+
+        public int validate(CharSequence str) {
+            return scan(str, 0, str.length()).firstError();
+        }
+
+        public int validateParallel(CharSequence str) {
+            int chunks = (str.length() + CHUNK - 1) / CHUNK;
+            if (chunks <= 1) {
+                return validate(str);
+            }
+            return IntStream.range(0, chunks).parallel()
+                    .mapToObj(c -> scan(str, c * CHUNK, Math.min(str.length(), (c + 1) * CHUNK)))
+                    .reduce((left, right) -> left.join(right, str))
+                    .get()
+                    .firstError();
+        }
+
+        Summary scan(CharSequence str, int from, int to) {
+            Summary s = new Summary();
+            for (int i = from; i < to; i++) {
+                char curr = str.charAt(i);
+
+                if (openType[curr] != 0) {
+                    s.opens.push(i);
+                } else if (closeType[curr] != 0) {
+                    if (s.opens.isEmpty()) {
+                        s.closes.push(i); // may match an earlier chunk
+                    } else if (openType[str.charAt(s.opens.peek())] == closeType[curr]) {
+                        s.opens.pop();
+                    } else {
+                        s.error = i;
+                        break;
+                    }
+                }
+            }
+            return s;
+        }
+
+        class Summary {
+            final IntStack closes = new IntStack(); // used as a list, in order
+            final IntStack opens = new IntStack();
+            int error = -1;
+
+            // this = chunk on the left, right = chunk right after it
+            Summary join(Summary right, CharSequence str) {
+                if (error >= 0) {
+                    return this; // nothing after an error matters
+                }
+                int i = 0;
+                while (i < right.closes.size() && !opens.isEmpty()) {
+                    int close = right.closes.get(i);
+                    if (openType[str.charAt(opens.peek())] != closeType[str.charAt(close)]) {
+                        error = close;
+                        return this;
+                    }
+                    opens.pop();
+                    i++;
+                }
+                for (; i < right.closes.size(); i++) {
+                    closes.push(right.closes.get(i));
+                }
+                for (int j = 0; j < right.opens.size(); j++) {
+                    opens.push(right.opens.get(j));
+                }
+                error = right.error;
+                return this;
+            }
+
+            int firstError() {
+                if (!closes.isEmpty()) {
+                    return closes.get(0); // always before any other error
+                }
+                if (error >= 0) {
+                    return error;
+                }
+                return opens.isEmpty() ? -1 : opens.get(0);
+            }
+        }
+    }
+
     // ------------------------------------------------------------
     // Main Method (Test Code)
     // ------------------------------------------------------------
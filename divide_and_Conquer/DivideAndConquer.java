@@ -13,6 +13,10 @@
  * Author: Aryan Nair
  */
 
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
 public class DivideAndConquer {
 
     // ------------------------------------------------------------
@@ -88,48 +92,356 @@ public class DivideAndConquer {
     // Q2. Quick Sort (Divide and Conquer Algorithm)
     //
     // Logic:
-    // 1. Choose a pivot element
-    // 2. Partition array around pivot
-    // 3. Recursively apply quick sort on left & right parts
+    // 1. Choose a pivot element (median of three random elements)
+    // 2. Partition array around pivot (three-way, the same
+    //    routine introSelect in Q3 uses)
+    // 3. Recursively apply quick sort on the smaller part and
+    //    loop on the larger one
+    //
+    // Sorted, reversed and all-equal inputs no longer hit the
+    // O(n^2) case of a last-element pivot. (Fixed positions such
+    // as first / middle / last are not enough: the three-way
+    // partition reverses the upper part of sorted input, and
+    // those patterns defeat a fixed median-of-three.)
     //
     // Time Complexity:
     // Best / Average Case: O(n log n)
-    // Worst Case: O(n^2)
+    // Worst Case: O(n^2) (rare, adversarial input)
     //
     // Space Complexity: O(log n)
     // ------------------------------------------------------------
     public static void quickSort(int[] nums, int start, int end) {
-        if (start >= end) {
+        while (start < end) {
+            int[] bounds = partitioning(nums, start, end);
+
+            if (bounds[0] - start < end - bounds[1]) {
+                quickSort(nums, start, bounds[0] - 1);
+                start = bounds[1] + 1;
+            } else {
+                quickSort(nums, bounds[1] + 1, end);
+                end = bounds[0] - 1;
+            }
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Partition Method (three-way, hardened)
+    //
+    // A Lomuto partition around the last element is O(n^2) on
+    // sorted input, and on inputs where many values repeat (equal
+    // elements all land on one side). This version picks
+    // the median of three random elements and groups elements
+    // equal to the pivot in the middle (Dutch National Flag):
+    // nums[start..lt-1] < pivot, nums[lt..gt] == pivot,
+    // nums[gt+1..end] > pivot
+    //
+    // Returns {lt, gt}
+    // ------------------------------------------------------------
+    public static int[] partitioning(int[] nums, int start, int end) {
+        return partitioning(nums, start, end, choosePivot(nums, start, end));
+    }
+
+    // same, around a pivot value chosen by the caller
+    public static int[] partitioning(int[] nums, int start, int end, int pivot) {
+        int lt = start;
+        int i = start;
+        int gt = end;
+
+        while (i <= gt) {
+            if (nums[i] < pivot) {
+                int temp = nums[i];
+                nums[i] = nums[lt];
+                nums[lt] = temp;
+                lt++;
+                i++;
+            } else if (nums[i] > pivot) {
+                int temp = nums[i];
+                nums[i] = nums[gt];
+                nums[gt] = temp;
+                gt--;
+            } else {
+                i++;
+            }
+        }
+        return new int[]{lt, gt};
+    }
+
+    // ------------------------------------------------------------
+    // Q3. K-th Smallest Element using Introselect
+    //
+    // Logic:
+    // 1. Quickselect with a random median-of-three pivot and a three-way
+    //    partition; only the side containing k is kept
+    // 2. If the range is not shrinking fast enough (too many bad
+    //    pivots), switch to median-of-medians pivots, which
+    //    guarantee linear time
+    // 3. Small ranges are finished with insertion sort
+    //
+    // After the call nums[k] holds the k-th smallest (0-based),
+    // everything before it is <= and everything after it is >=.
+    //
+    // Time Complexity:
+    // Average Case: O(n)
+    // Worst Case: O(n) (median-of-medians fallback)
+    //
+    // Space Complexity: O(1) extra (plus O(log n) for the fallback)
+    // ------------------------------------------------------------
+    public static int introSelect(int[] nums, int start, int end, int k) {
+        if (k < start || k > end) {
+            throw new IllegalArgumentException("k out of range: " + k);
+        }
+        int budget = 2 * (32 - Integer.numberOfLeadingZeros(end - start + 1));
+
+        while (end - start > 16) {
+            int pivot;
+            if (budget > 0) {
+                budget--;
+                pivot = choosePivot(nums, start, end);
+            } else {
+                pivot = medianOfMedians(nums, start, end);
+            }
+
+            int[] bounds = partitioning(nums, start, end, pivot);
+            if (k < bounds[0]) {
+                end = bounds[0] - 1;
+            } else if (k > bounds[1]) {
+                start = bounds[1] + 1;
+            } else {
+                return nums[k];
+            }
+        }
+        insertionSort(nums, start, end);
+        return nums[k];
+    }
+
+    // median of three random elements of nums[start..end]
+    static int choosePivot(int[] nums, int start, int end) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int a = random.nextInt(start, end + 1);
+        int b = random.nextInt(start, end + 1);
+        int c = random.nextInt(start, end + 1);
+        return nums[medianOfThree(nums, a, b, c)];
+    }
+
+    // index of the median of nums[a], nums[b], nums[c]
+    static int medianOfThree(int[] nums, int a, int b, int c) {
+        if (nums[a] < nums[b]) {
+            if (nums[b] < nums[c]) {
+                return b;
+            }
+            return nums[a] < nums[c] ? c : a;
+        }
+        if (nums[a] < nums[c]) {
+            return a;
+        }
+        return nums[b] < nums[c] ? c : b;
+    }
+
+    // ------------------------------------------------------------
+    // Median of Medians (pivot with guaranteed quality)
+    //
+    // Sorts groups of 5, moves each group median to the front
+    // of the range and selects the median of those medians.
+    // ------------------------------------------------------------
+    static int medianOfMedians(int[] nums, int start, int end) {
+        int medians = start;
+
+        for (int i = start; i <= end; i += 5) {
+            int groupEnd = Math.min(i + 4, end);
+            insertionSort(nums, i, groupEnd);
+
+            int mid = i + (groupEnd - i) / 2;
+            int temp = nums[mid];
+            nums[mid] = nums[medians];
+            nums[medians] = temp;
+            medians++;
+        }
+        int last = medians - 1;
+        return introSelect(nums, start, last, start + (last - start) / 2);
+    }
+
+    static void insertionSort(int[] nums, int start, int end) {
+        for (int i = start + 1; i <= end; i++) {
+            int curr = nums[i];
+            int prev = i - 1;
+            while (prev >= start && nums[prev] > curr) {
+                nums[prev + 1] = nums[prev];
+                prev--;
+            }
+            nums[prev + 1] = curr;
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Q4. Multi-Select (several order statistics in one pass)
+    //
+    // Logic:
+    // 1. Sort the requested ranks
+    // 2. Select the middle rank, which splits the array
+    // 3. Recurse on the left part with the smaller ranks and on
+    //    the right part with the larger ranks
+    //
+    // Every nums[ks[i]] ends up in its sorted position.
+    //
+    // Time Complexity: O(n log m) for m ranks
+    // Space Complexity: O(m)
+    // ------------------------------------------------------------
+    public static int[] multiSelect(int[] nums, int[] ks) {
+        int[] sortedKs = ks.clone();
+        Arrays.sort(sortedKs);
+        multiSelect(nums, 0, nums.length - 1, sortedKs, 0, sortedKs.length - 1);
+
+        int[] result = new int[ks.length];
+        for (int i = 0; i < ks.length; i++) {
+            result[i] = nums[ks[i]];
+        }
+        return result;
+    }
+
+    static void multiSelect(int[] nums, int start, int end, int[] ks, int lo, int hi) {
+        if (lo > hi || start > end) {
             return;
         }
+        int mid = lo + (hi - lo) / 2;
+        int k = ks[mid];
+        introSelect(nums, start, end, k);
 
-        int partitionIndex = partitioning(nums, start, end);
-        quickSort(nums, start, partitionIndex - 1);
-        quickSort(nums, partitionIndex + 1, end);
+        // skip duplicate ranks
+        int left = mid - 1;
+        while (left >= lo && ks[left] == k) {
+            left--;
+        }
+        int right = mid + 1;
+        while (right <= hi && ks[right] == k) {
+            right++;
+        }
+        multiSelect(nums, start, k - 1, ks, lo, left);
+        multiSelect(nums, k + 1, end, ks, right, hi);
     }
 
     // ------------------------------------------------------------
-    // Partition Method (Lomuto Partition Scheme)
+    // Q5. Quantiles (p50 / p90 / p99 ...)
+    //
+    // Uses the nearest-rank definition: the q-quantile of n values
+    // is the element at sorted index ceil(q * n) - 1.
+    // Reorders nums in place (pass a copy to keep the original).
+    //
+    // Time Complexity: O(n log m) for m quantiles
     // ------------------------------------------------------------
-    public static int partitioning(int[] nums, int start, int end) {
-        int pivot = nums[end];
-        int i = start - 1;
+    public static int[] quantiles(int[] nums, double[] qs) {
+        if (nums.length == 0) {
+            throw new IllegalArgumentException("no values");
+        }
+        int[] ks = new int[qs.length];
+        for (int i = 0; i < qs.length; i++) {
+            ks[i] = quantileRank(qs[i], nums.length);
+        }
+        return multiSelect(nums, ks);
+    }
 
-        for (int j = start; j < end; j++) {
-            if (nums[j] < pivot) {
-                i++;
-                int temp = nums[j];
-                nums[j] = nums[i];
-                nums[i] = temp;
+    static int quantileRank(double q, int n) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("quantile must be in [0, 1]: " + q);
+        }
+        return Math.max(0, (int) Math.ceil(q * n) - 1);
+    }
+
+    // ------------------------------------------------------------
+    // Q6. Parallel Quantiles (sampling + exact refine)
+    //
+    // Logic:
+    // 1. Take a random sample and sort it
+    // 2. For each quantile, read a bracket [lo, hi] around its
+    //    position in the sample (a few standard deviations wide)
+    // 3. One parallel pass over the data counts the values < lo
+    //    and collects only the values inside [lo, hi]
+    // 4. If the target rank falls inside the bracket, select it
+    //    exactly from the (small) candidate set; otherwise fall
+    //    back to an exact select on a copy
+    //
+    // The answer is always exact; sampling only shrinks the work.
+    // Does not modify nums.
+    //
+    // Time Complexity: O(n / p) per quantile with p cores
+    // Space Complexity: O(sample + candidates)
+    // ------------------------------------------------------------
+    static final int SAMPLE_SIZE = 1 << 14;
+    static final int PARALLEL_CHUNK = 1 << 16;
+
+    public static int[] parallelQuantiles(int[] nums, double[] qs) {
+        int n = nums.length;
+        if (n <= SAMPLE_SIZE * 4) {
+            return quantiles(nums.clone(), qs);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] sample = new int[SAMPLE_SIZE];
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = nums[random.nextInt(n)];
+        }
+        Arrays.sort(sample);
+
+        int margin = (int) (3 * Math.sqrt(SAMPLE_SIZE)) + 1;
+        int[] result = new int[qs.length];
+
+        for (int i = 0; i < qs.length; i++) {
+            int rank = quantileRank(qs[i], n);
+            int samplePos = (int) ((long) rank * SAMPLE_SIZE / n);
+            int lo = sample[Math.max(0, samplePos - margin)];
+            int hi = sample[Math.min(SAMPLE_SIZE - 1, samplePos + margin)];
+
+            Bracket b = collect(nums, lo, hi);
+            if (rank >= b.below && rank < b.below + b.size) {
+                result[i] = introSelect(b.values, 0, b.size - 1, rank - b.below);
+            } else {
+                int[] copy = nums.clone();
+                result[i] = introSelect(copy, 0, n - 1, rank);
             }
         }
+        return result;
+    }
+
+    // values < lo are counted, values in [lo, hi] are kept
+    static class Bracket {
+        int below;
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        Bracket combine(Bracket other) {
+            below += other.below;
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+            return this;
+        }
+    }
 
-        // place pivot at correct position
-        i++;
-        nums[end] = nums[i];
-        nums[i] = pivot;
+    static Bracket collect(int[] nums, int lo, int hi) {
+        int chunks = (nums.length + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
 
-        return i;
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> {
+                    Bracket b = new Bracket();
+                    int from = c * PARALLEL_CHUNK;
+                    int to = Math.min(nums.length, from + PARALLEL_CHUNK);
+                    for (int j = from; j < to; j++) {
+                        if (nums[j] < lo) {
+                            b.below++;
+                        } else if (nums[j] <= hi) {
+                            b.add(nums[j]);
+                        }
+                    }
+                    return b;
+                })
+                .reduce(Bracket::combine)
+                .orElseGet(Bracket::new);
     }
 
     // ------------------------------------------------------------
@@ -140,6 +452,7 @@ public class DivideAndConquer {
 
         quickSort(nums, 0, nums.length - 1);
         // mergeSort(nums, 0, nums.length - 1);
+        // System.out.println(introSelect(nums, 0, nums.length - 1, nums.length / 2));
 
         printArr(nums);
     }